@@ -0,0 +1,60 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.sun.management.ThreadMXBean;
+import eu.menzani.logger.api.AbstractLogger;
+import eu.menzani.logger.api.PipelineLogger;
+import eu.menzani.logger.impl.LogEntryPool;
+import eu.menzani.logger.impl.Pipeline;
+import eu.menzani.logger.impl.StandardLevel;
+import eu.menzani.logger.impl.SynchronousLogger;
+
+import java.lang.management.ManagementFactory;
+
+class AllocationBenchmark {
+    private static final int iterations = 1_000_000;
+    private static final ThreadMXBean threadBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        PipelineLogger logger = new SynchronousLogger()
+                .addPipeline(new Pipeline()
+                        .setVerbosity(StandardLevel.INFORMATION)
+                        .addConsumer((entry, formattedEntry) -> {
+                        }));
+        AbstractLogger pooledLogger = logger.clone()
+                .setEntryPool(new LogEntryPool());
+
+        for (int i = 0; i < 3; i++) {
+            measure("disabled, varargs", () -> logger.debug("Latency: {}", new Object[]{System.nanoTime()}));
+            measure("disabled, long", () -> logger.debug("Latency: {}", System.nanoTime()));
+            measure("disabled, two objects", () -> logger.debug("{} {}", logger, logger));
+            measure("enabled, varargs", () -> logger.info("Latency: {}", new Object[]{System.nanoTime()}));
+            measure("enabled, long", () -> logger.info("Latency: {}", System.nanoTime()));
+            measure("enabled, long, pooled", () -> pooledLogger.info("Latency: {}", System.nanoTime()));
+            System.out.println();
+        }
+    }
+
+    private static void measure(String name, Runnable call) {
+        long threadId = Thread.currentThread().getId();
+        long start = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            call.run();
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - start;
+        System.out.println(name + ": " + allocated / iterations + " bytes/call");
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import eu.menzani.logger.api.Clock;
+import eu.menzani.logger.api.EpochClock;
+import eu.menzani.logger.impl.CachedClock;
+import eu.menzani.logger.impl.SystemEpochClock;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+class ClockBenchmark {
+    private static final int threads = Math.max(4, java.lang.Runtime.getRuntime().availableProcessors());
+    private static final long durationNanos = TimeUnit.SECONDS.toNanos(1);
+
+    private static volatile Object sink;
+
+    public static void main(String[] args) throws InterruptedException {
+        try (CachedClock cachedClock = new CachedClock();
+             CachedClock interpolatedClock = new CachedClock(1, TimeUnit.MILLISECONDS, true)) {
+            for (int i = 0; i < 3; i++) {
+                measureClock("LocalDateTime::now", LocalDateTime::now);
+                measureClock("CachedClock#now()", cachedClock);
+                measureEpochClock("SystemEpochClock", SystemEpochClock.instance);
+                measureEpochClock("CachedClock#nanos()", cachedClock);
+                measureEpochClock("CachedClock#nanos(), interpolated", interpolatedClock);
+                System.out.println();
+            }
+        }
+    }
+
+    private static void measureClock(String name, Clock clock) throws InterruptedException {
+        measure(name, () -> sink = clock.now());
+    }
+
+    private static void measureEpochClock(String name, EpochClock clock) throws InterruptedException {
+        measure(name, () -> {
+            long nanos = clock.nanos();
+            if (nanos == 0L) sink = null;
+        });
+    }
+
+    private static void measure(String name, Runnable read) throws InterruptedException {
+        LongAdder operations = new LongAdder();
+        CountDownLatch latch = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            new Thread(() -> {
+                long count = 0L;
+                long deadline = System.nanoTime() + durationNanos;
+                while (System.nanoTime() < deadline) {
+                    for (int j = 0; j < 100; j++) {
+                        read.run();
+                    }
+                    count += 100;
+                }
+                operations.add(count);
+                latch.countDown();
+            }).start();
+        }
+        latch.await();
+        System.out.println(name + ": " + operations.sum() / TimeUnit.NANOSECONDS.toMillis(durationNanos) + " reads/ms with " + threads + " threads");
+    }
+}
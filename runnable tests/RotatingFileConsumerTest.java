@@ -47,6 +47,10 @@ class RotatingFileConsumerTest {
                 return newStartupRotationPolicy();
             case "temporal":
                 return newTemporalRotationPolicy();
+            case "size":
+                return newSizeRotationPolicy();
+            case "hybrid":
+                return newHybridRotationPolicy();
             default:
                 throw Runtime.Setting.ROTATION_POLICY.newInvalidValueException();
         }
@@ -62,4 +66,15 @@ class RotatingFileConsumerTest {
         return new TemporalRotationPolicy("Temporal {TIMESTAMP}.log",
                 DateTimeFormatter.ofLocalizedDateTime(FormatStyle.MEDIUM), 2, ChronoField.SECOND_OF_MINUTE);
     }
+
+    private static RotationPolicy newSizeRotationPolicy() {
+        Runtime.cleanOutput();
+        return new SizeRotationPolicy("Size {ID}.log", 256);
+    }
+
+    private static RotationPolicy newHybridRotationPolicy() {
+        Runtime.cleanOutput();
+        return new HybridRotationPolicy("Hybrid {TIMESTAMP}-{ID}.log",
+                DateTimeFormatter.ofLocalizedDateTime(FormatStyle.MEDIUM), 10, ChronoField.SECOND_OF_MINUTE, 256);
+    }
 }
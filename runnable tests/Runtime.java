@@ -50,7 +50,7 @@ class Runtime {
     }
 
     enum Setting {
-        ROTATION_POLICY("RotatingFileConsumer.rotation-policy", "startup", "temporal");
+        ROTATION_POLICY("RotatingFileConsumer.rotation-policy", "startup", "temporal", "size", "hybrid");
 
         private final String key;
         private final String acceptedValues;
@@ -26,13 +26,13 @@ import java.util.Queue;
 public final class Profiler implements AutoCloseable {
     private final Logger logger;
     private final Level level;
-    private final StringFormat messageFormat;
+    private final StringFormat.Template messageTemplate;
     private final long startTime;
 
-    private Profiler(Logger logger, Level level, String messageFormat) {
+    private Profiler(Logger logger, Level level, StringFormat.Template messageTemplate) {
         this.logger = logger;
         this.level = level;
-        this.messageFormat = new StringFormat(Objects.objectNotNull(messageFormat, "messageFormat"));
+        this.messageTemplate = messageTemplate;
         startTime = System.nanoTime();
     }
 
@@ -53,8 +53,11 @@ public final class Profiler implements AutoCloseable {
     }
 
     public String toString(Duration duration) {
-        String elapsed = String.format("%ds %dms", duration.getSeconds() % 60, duration.getNano() / 1_000_000);
-        return messageFormat.fill("elapsed", elapsed).toString();
+        String elapsed = new StringBuilder(12)
+                .append(duration.getSeconds() % 60).append("s ")
+                .append(duration.getNano() / 1_000_000).append("ms")
+                .toString();
+        return messageTemplate.bind().fill("elapsed", elapsed).toString();
     }
 
     @Override
@@ -70,6 +73,7 @@ public final class Profiler implements AutoCloseable {
         private Logger logger;
         private Level level = StandardLevel.DEBUG;
         private String messageFormat;
+        private StringFormat.Template messageTemplate;
 
         protected Builder() {
         }
@@ -89,6 +93,7 @@ public final class Profiler implements AutoCloseable {
         public Builder withMessageFormat(String messageFormat) {
             checkLocked();
             this.messageFormat = messageFormat;
+            messageTemplate = null;
             return this;
         }
 
@@ -99,7 +104,12 @@ public final class Profiler implements AutoCloseable {
 
         @Override
         protected Profiler doBuild() {
-            return new Profiler(logger, level, messageFormat);
+            StringFormat.Template messageTemplate = this.messageTemplate;
+            if (messageTemplate == null) {
+                messageTemplate = new StringFormat(messageFormat).compile();
+                this.messageTemplate = messageTemplate;
+            }
+            return new Profiler(logger, level, messageTemplate);
         }
     }
 }
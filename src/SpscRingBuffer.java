@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, preallocated queue for exactly one producer thread and one consumer thread.
+ * <p/>
+ * Each side caches the other side's index and only reads it again when the cached value says
+ * the buffer is full or empty. The index and the cache of each side are padded away from those of the other,
+ * so in the common case the two sides only share the cache lines of the elements they pass.
+ */
+public final class SpscRingBuffer<E> {
+    private static final AtomicLongFieldUpdater<Side> indexUpdater = AtomicLongFieldUpdater.newUpdater(Side.class, "index");
+
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final Side producer = new Side(); // Index is the tail, written by the producer
+    private final Side consumer = new Side(); // Index is the head, written by the consumer
+
+    public SpscRingBuffer(int capacity) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a positive power of two.");
+        }
+        mask = capacity - 1;
+        elements = new AtomicReferenceArray<>(capacity);
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    public boolean offer(E element) {
+        Objects.objectNotNull(element, "element");
+        Side producer = this.producer;
+        long tail = producer.index;
+        if (tail - producer.otherIndex > mask) {
+            producer.otherIndex = consumer.index;
+            if (tail - producer.otherIndex > mask) {
+                return false;
+            }
+        }
+        elements.lazySet((int) tail & mask, element);
+        producer.index = tail + 1;
+        return true;
+    }
+
+    public E poll() {
+        Side consumer = this.consumer;
+        long head = consumer.index;
+        if (head >= consumer.otherIndex) {
+            consumer.otherIndex = producer.index;
+            if (head >= consumer.otherIndex) {
+                return null;
+            }
+        }
+        int index = (int) head & mask;
+        E element = elements.get(index);
+        elements.lazySet(index, null);
+        indexUpdater.lazySet(consumer, head + 1);
+        return element;
+    }
+
+    public boolean isEmpty() {
+        return producer.index == consumer.index;
+    }
+
+    /**
+     * The fields of one side, between enough padding to fill a cache line on either side of them.
+     */
+    @SuppressWarnings("unused")
+    private static final class Side {
+        private long p01, p02, p03, p04, p05, p06, p07;
+        private volatile long index;
+        private long otherIndex; // Cached index of the other side, only accessed by this side
+        private long p11, p12, p13, p14, p15, p16, p17;
+    }
+}
@@ -18,7 +18,9 @@ package eu.menzani.logger;
 
 import eu.menzani.logger.api.LazyMessage;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
 
@@ -99,4 +101,99 @@ public final class StringFormat implements Cloneable<StringFormat> {
     public StringFormat clone() {
         return new StringFormat(format, new HashMap<>(valueSuppliers)).delimiters(start, end);
     }
+
+    /**
+     * Parses the placeholders left in this format once, so that values can be bound repeatedly
+     * without cloning this object or scanning the format again.
+     * Placeholders are matched as {@link #fill(String, Object)} would, innermost first,
+     * but bound values are not scanned for further placeholders.
+     *
+     * @throws IllegalStateException if value suppliers are pending, since a template cannot evaluate them.
+     */
+    public Template compile() {
+        if (!valueSuppliers.isEmpty()) {
+            throw new IllegalStateException("Value suppliers found. Use #toString() or #evaluateToString() before compiling.");
+        }
+        return new Template(format, start, end);
+    }
+
+    public static final class Template {
+        private final String[] literals;
+        private final String[] variables;
+        private final String[] placeholders;
+        private final int length;
+
+        private Template(String format, char start, char end) {
+            List<String> literals = new ArrayList<>();
+            List<String> variables = new ArrayList<>();
+            int literalStart = 0, i = 0, length = 0;
+            while ((i = format.indexOf(start, i)) != -1) {
+                int variableEnd = format.indexOf(end, i + 1);
+                if (variableEnd == -1) break;
+                i = format.lastIndexOf(start, variableEnd - 1);
+                String literal = format.substring(literalStart, i);
+                literals.add(literal);
+                length += literal.length();
+                variables.add(format.substring(i + 1, variableEnd));
+                i = literalStart = variableEnd + 1;
+            }
+            String literal = format.substring(literalStart);
+            literals.add(literal);
+            this.literals = literals.toArray(new String[0]);
+            this.variables = variables.toArray(new String[0]);
+            placeholders = new String[this.variables.length];
+            for (int j = 0; j < placeholders.length; j++) {
+                placeholders[j] = start + this.variables[j] + end;
+            }
+            this.length = length + literal.length();
+        }
+
+        public Binder bind() {
+            return new Binder(this);
+        }
+    }
+
+    /**
+     * Values for the variables of a {@link Template}. Placeholders without a value are rendered as they are.
+     */
+    public static final class Binder {
+        private final Template template;
+        private final Object[] values;
+
+        private Binder(Template template) {
+            this.template = template;
+            values = new Object[template.variables.length];
+        }
+
+        public Binder fill(String variable, Object value) {
+            String name = Objects.objectNotNull(variable, "variable").toUpperCase();
+            Objects.objectNotNull(value, "value");
+            String[] variables = template.variables;
+            for (int i = 0; i < variables.length; i++) {
+                if (variables[i].equals(name)) {
+                    values[i] = value;
+                }
+            }
+            return this;
+        }
+
+        public StringBuilder appendTo(StringBuilder builder) {
+            String[] literals = template.literals;
+            for (int i = 0; i < values.length; i++) {
+                builder.append(literals[i]);
+                Object value = values[i];
+                if (value == null) {
+                    builder.append(template.placeholders[i]);
+                } else {
+                    builder.append(value);
+                }
+            }
+            return builder.append(literals[values.length]);
+        }
+
+        @Override
+        public String toString() {
+            return appendTo(new StringBuilder(template.length + 16 * values.length)).toString();
+        }
+    }
 }
@@ -16,31 +16,77 @@
 
 package eu.menzani.logger.api;
 
+import eu.menzani.logger.Nullable;
 import eu.menzani.logger.Objects;
 import eu.menzani.logger.impl.ConsoleExceptionHandler;
 import eu.menzani.logger.impl.LogEntry;
+import eu.menzani.logger.impl.LogEntryPool;
 import eu.menzani.logger.impl.ParameterizedMessage;
 import eu.menzani.logger.impl.StandardLevel;
+import eu.menzani.logger.impl.SystemEpochClock;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.temporal.Temporal;
+import java.util.Optional;
 
 public abstract class AbstractLogger implements Logger {
-    private volatile Clock clock = LocalDateTime::now;
+    private volatile Clock clock;
+    private volatile EpochClock epochClock = SystemEpochClock.instance;
     private volatile ExceptionHandler exceptionHandler = new ConsoleExceptionHandler();
+    private volatile LogEntryPool entryPool;
 
     protected Temporal getClockTime() {
+        Clock clock = this.clock;
+        if (clock == null) {
+            return LocalDateTime.ofInstant(Instant.ofEpochSecond(0L, epochClock.nanos()), ZoneId.systemDefault());
+        }
         return Objects.objectNotNull(clock.now(), "clock#now()");
     }
 
+    /**
+     * Stamps {@code entry} with the epoch clock, without allocating, unless a {@link Clock} was set.
+     */
+    protected void setTimestamp(LogEntry entry) {
+        Clock clock = this.clock;
+        if (clock == null) {
+            entry.setTimestamp(epochClock.nanos());
+        } else {
+            entry.setTimestamp(Objects.objectNotNull(clock.now(), "clock#now()"));
+        }
+    }
+
+    /**
+     * Replaces the epoch clock; entries will carry the {@link Temporal} returned by {@code clock}.
+     */
     public AbstractLogger setClock(Clock clock) {
         this.clock = Objects.objectNotNull(clock, "clock");
         return this;
     }
 
+    public AbstractLogger setEpochClock(EpochClock epochClock) {
+        this.epochClock = Objects.objectNotNull(epochClock, "epochClock");
+        clock = null;
+        return this;
+    }
+
+    /**
+     * Opts into garbage-free logging: entries are taken from {@code entryPool} and recycled
+     * once every pipeline is done with them. See {@link Consumer} for what this means for consumers.
+     */
+    public AbstractLogger setEntryPool(@Nullable LogEntryPool entryPool) {
+        this.entryPool = entryPool;
+        return this;
+    }
+
+    public Optional<LogEntryPool> getEntryPool() {
+        return Optional.ofNullable(entryPool);
+    }
+
     public <T extends LoggerException> T throwException(T exception) {
         exceptionHandler.handle(exception);
         return exception;
@@ -51,6 +97,11 @@ public abstract class AbstractLogger implements Logger {
         return this;
     }
 
+    @Override
+    public boolean isEnabled(Level level) {
+        return !isDisabled();
+    }
+
     @Override
     public void trace(LazyMessage lazyMessage) {
         log(StandardLevel.TRACE, lazyMessage);
@@ -93,6 +144,7 @@ public abstract class AbstractLogger implements Logger {
 
     @Override
     public void throwable(Level level, Throwable throwable, LazyMessage lazyMessage) {
+        if (!isEnabled(level)) return;
         log(level, new ParameterizedMessage("{}%n{}", null, null).with(lazyMessage, () -> throwableToString(throwable)));
     }
 
@@ -103,7 +155,8 @@ public abstract class AbstractLogger implements Logger {
 
     @Override
     public void log(Level level, LazyMessage lazyMessage) {
-        tryLog(new LogEntry(level, null, lazyMessage));
+        if (!isEnabled(level)) return;
+        tryLog(level, null, lazyMessage);
     }
 
 
@@ -149,6 +202,7 @@ public abstract class AbstractLogger implements Logger {
 
     @Override
     public void throwable(Level level, Throwable throwable, String parameterizedMessage, Object... arguments) {
+        if (!isEnabled(level)) return;
         log(level, new ParameterizedMessage("{}%n{}", null, null).with(
                 new ParameterizedMessage(parameterizedMessage, Objects.contentNotNull(arguments, "arguments")),
                 () -> throwableToString(throwable)));
@@ -161,10 +215,442 @@ public abstract class AbstractLogger implements Logger {
 
     @Override
     public void log(Level level, String parameterizedMessage, Object... arguments) {
+        if (!isEnabled(level)) return;
         log(level, new ParameterizedMessage(parameterizedMessage, Objects.contentNotNull(arguments, "arguments")));
     }
 
 
+    @Override
+    public void trace(String parameterizedMessage, Object argument) {
+        log(StandardLevel.TRACE, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void debug(String parameterizedMessage, Object argument) {
+        log(StandardLevel.DEBUG, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void fine(String parameterizedMessage, Object argument) {
+        log(StandardLevel.FINE, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void info(String parameterizedMessage, Object argument) {
+        log(StandardLevel.INFORMATION, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void header(String parameterizedMessage, Object argument) {
+        log(StandardLevel.HEADER, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void warn(String parameterizedMessage, Object argument) {
+        log(StandardLevel.WARNING, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void fail(String parameterizedMessage, Object argument) {
+        log(StandardLevel.FAILURE, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void fatal(String parameterizedMessage, Object argument) {
+        log(StandardLevel.FATAL, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void log(Level level, String parameterizedMessage, Object argument) {
+        if (!isEnabled(level)) return;
+        log(level, new ParameterizedMessage(parameterizedMessage, Objects.elementNotNull(argument, "arguments")));
+    }
+
+
+    @Override
+    public void trace(String parameterizedMessage, Object argument0, Object argument1) {
+        log(StandardLevel.TRACE, parameterizedMessage, argument0, argument1);
+    }
+
+    @Override
+    public void debug(String parameterizedMessage, Object argument0, Object argument1) {
+        log(StandardLevel.DEBUG, parameterizedMessage, argument0, argument1);
+    }
+
+    @Override
+    public void fine(String parameterizedMessage, Object argument0, Object argument1) {
+        log(StandardLevel.FINE, parameterizedMessage, argument0, argument1);
+    }
+
+    @Override
+    public void info(String parameterizedMessage, Object argument0, Object argument1) {
+        log(StandardLevel.INFORMATION, parameterizedMessage, argument0, argument1);
+    }
+
+    @Override
+    public void header(String parameterizedMessage, Object argument0, Object argument1) {
+        log(StandardLevel.HEADER, parameterizedMessage, argument0, argument1);
+    }
+
+    @Override
+    public void warn(String parameterizedMessage, Object argument0, Object argument1) {
+        log(StandardLevel.WARNING, parameterizedMessage, argument0, argument1);
+    }
+
+    @Override
+    public void fail(String parameterizedMessage, Object argument0, Object argument1) {
+        log(StandardLevel.FAILURE, parameterizedMessage, argument0, argument1);
+    }
+
+    @Override
+    public void fatal(String parameterizedMessage, Object argument0, Object argument1) {
+        log(StandardLevel.FATAL, parameterizedMessage, argument0, argument1);
+    }
+
+    @Override
+    public void log(Level level, String parameterizedMessage, Object argument0, Object argument1) {
+        if (!isEnabled(level)) return;
+        log(level, new ParameterizedMessage(parameterizedMessage,
+                Objects.elementNotNull(argument0, "arguments"), Objects.elementNotNull(argument1, "arguments")));
+    }
+
+
+    @Override
+    public void trace(String parameterizedMessage, Object argument0, Object argument1, Object argument2) {
+        log(StandardLevel.TRACE, parameterizedMessage, argument0, argument1, argument2);
+    }
+
+    @Override
+    public void debug(String parameterizedMessage, Object argument0, Object argument1, Object argument2) {
+        log(StandardLevel.DEBUG, parameterizedMessage, argument0, argument1, argument2);
+    }
+
+    @Override
+    public void fine(String parameterizedMessage, Object argument0, Object argument1, Object argument2) {
+        log(StandardLevel.FINE, parameterizedMessage, argument0, argument1, argument2);
+    }
+
+    @Override
+    public void info(String parameterizedMessage, Object argument0, Object argument1, Object argument2) {
+        log(StandardLevel.INFORMATION, parameterizedMessage, argument0, argument1, argument2);
+    }
+
+    @Override
+    public void header(String parameterizedMessage, Object argument0, Object argument1, Object argument2) {
+        log(StandardLevel.HEADER, parameterizedMessage, argument0, argument1, argument2);
+    }
+
+    @Override
+    public void warn(String parameterizedMessage, Object argument0, Object argument1, Object argument2) {
+        log(StandardLevel.WARNING, parameterizedMessage, argument0, argument1, argument2);
+    }
+
+    @Override
+    public void fail(String parameterizedMessage, Object argument0, Object argument1, Object argument2) {
+        log(StandardLevel.FAILURE, parameterizedMessage, argument0, argument1, argument2);
+    }
+
+    @Override
+    public void fatal(String parameterizedMessage, Object argument0, Object argument1, Object argument2) {
+        log(StandardLevel.FATAL, parameterizedMessage, argument0, argument1, argument2);
+    }
+
+    @Override
+    public void log(Level level, String parameterizedMessage, Object argument0, Object argument1, Object argument2) {
+        if (!isEnabled(level)) return;
+        log(level, new ParameterizedMessage(parameterizedMessage,
+                Objects.elementNotNull(argument0, "arguments"),
+                Objects.elementNotNull(argument1, "arguments"),
+                Objects.elementNotNull(argument2, "arguments")));
+    }
+
+
+    @Override
+    public void trace(String parameterizedMessage, Object argument0, Object argument1, Object argument2, Object argument3) {
+        log(StandardLevel.TRACE, parameterizedMessage, argument0, argument1, argument2, argument3);
+    }
+
+    @Override
+    public void debug(String parameterizedMessage, Object argument0, Object argument1, Object argument2, Object argument3) {
+        log(StandardLevel.DEBUG, parameterizedMessage, argument0, argument1, argument2, argument3);
+    }
+
+    @Override
+    public void fine(String parameterizedMessage, Object argument0, Object argument1, Object argument2, Object argument3) {
+        log(StandardLevel.FINE, parameterizedMessage, argument0, argument1, argument2, argument3);
+    }
+
+    @Override
+    public void info(String parameterizedMessage, Object argument0, Object argument1, Object argument2, Object argument3) {
+        log(StandardLevel.INFORMATION, parameterizedMessage, argument0, argument1, argument2, argument3);
+    }
+
+    @Override
+    public void header(String parameterizedMessage, Object argument0, Object argument1, Object argument2, Object argument3) {
+        log(StandardLevel.HEADER, parameterizedMessage, argument0, argument1, argument2, argument3);
+    }
+
+    @Override
+    public void warn(String parameterizedMessage, Object argument0, Object argument1, Object argument2, Object argument3) {
+        log(StandardLevel.WARNING, parameterizedMessage, argument0, argument1, argument2, argument3);
+    }
+
+    @Override
+    public void fail(String parameterizedMessage, Object argument0, Object argument1, Object argument2, Object argument3) {
+        log(StandardLevel.FAILURE, parameterizedMessage, argument0, argument1, argument2, argument3);
+    }
+
+    @Override
+    public void fatal(String parameterizedMessage, Object argument0, Object argument1, Object argument2, Object argument3) {
+        log(StandardLevel.FATAL, parameterizedMessage, argument0, argument1, argument2, argument3);
+    }
+
+    @Override
+    public void log(Level level, String parameterizedMessage, Object argument0, Object argument1, Object argument2, Object argument3) {
+        if (!isEnabled(level)) return;
+        log(level, new ParameterizedMessage(parameterizedMessage,
+                Objects.elementNotNull(argument0, "arguments"),
+                Objects.elementNotNull(argument1, "arguments"),
+                Objects.elementNotNull(argument2, "arguments"),
+                Objects.elementNotNull(argument3, "arguments")));
+    }
+
+
+    @Override
+    public void trace(String parameterizedMessage, int argument) {
+        log(StandardLevel.TRACE, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void debug(String parameterizedMessage, int argument) {
+        log(StandardLevel.DEBUG, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void fine(String parameterizedMessage, int argument) {
+        log(StandardLevel.FINE, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void info(String parameterizedMessage, int argument) {
+        log(StandardLevel.INFORMATION, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void header(String parameterizedMessage, int argument) {
+        log(StandardLevel.HEADER, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void warn(String parameterizedMessage, int argument) {
+        log(StandardLevel.WARNING, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void fail(String parameterizedMessage, int argument) {
+        log(StandardLevel.FAILURE, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void fatal(String parameterizedMessage, int argument) {
+        log(StandardLevel.FATAL, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void log(Level level, String parameterizedMessage, int argument) {
+        if (!isEnabled(level)) return;
+        log(level, new ParameterizedMessage(parameterizedMessage, argument));
+    }
+
+
+    @Override
+    public void trace(String parameterizedMessage, long argument) {
+        log(StandardLevel.TRACE, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void debug(String parameterizedMessage, long argument) {
+        log(StandardLevel.DEBUG, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void fine(String parameterizedMessage, long argument) {
+        log(StandardLevel.FINE, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void info(String parameterizedMessage, long argument) {
+        log(StandardLevel.INFORMATION, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void header(String parameterizedMessage, long argument) {
+        log(StandardLevel.HEADER, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void warn(String parameterizedMessage, long argument) {
+        log(StandardLevel.WARNING, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void fail(String parameterizedMessage, long argument) {
+        log(StandardLevel.FAILURE, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void fatal(String parameterizedMessage, long argument) {
+        log(StandardLevel.FATAL, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void log(Level level, String parameterizedMessage, long argument) {
+        if (!isEnabled(level)) return;
+        log(level, new ParameterizedMessage(parameterizedMessage, argument));
+    }
+
+
+    @Override
+    public void trace(String parameterizedMessage, double argument) {
+        log(StandardLevel.TRACE, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void debug(String parameterizedMessage, double argument) {
+        log(StandardLevel.DEBUG, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void fine(String parameterizedMessage, double argument) {
+        log(StandardLevel.FINE, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void info(String parameterizedMessage, double argument) {
+        log(StandardLevel.INFORMATION, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void header(String parameterizedMessage, double argument) {
+        log(StandardLevel.HEADER, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void warn(String parameterizedMessage, double argument) {
+        log(StandardLevel.WARNING, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void fail(String parameterizedMessage, double argument) {
+        log(StandardLevel.FAILURE, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void fatal(String parameterizedMessage, double argument) {
+        log(StandardLevel.FATAL, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void log(Level level, String parameterizedMessage, double argument) {
+        if (!isEnabled(level)) return;
+        log(level, new ParameterizedMessage(parameterizedMessage, argument));
+    }
+
+
+    @Override
+    public void trace(String parameterizedMessage, boolean argument) {
+        log(StandardLevel.TRACE, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void debug(String parameterizedMessage, boolean argument) {
+        log(StandardLevel.DEBUG, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void fine(String parameterizedMessage, boolean argument) {
+        log(StandardLevel.FINE, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void info(String parameterizedMessage, boolean argument) {
+        log(StandardLevel.INFORMATION, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void header(String parameterizedMessage, boolean argument) {
+        log(StandardLevel.HEADER, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void warn(String parameterizedMessage, boolean argument) {
+        log(StandardLevel.WARNING, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void fail(String parameterizedMessage, boolean argument) {
+        log(StandardLevel.FAILURE, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void fatal(String parameterizedMessage, boolean argument) {
+        log(StandardLevel.FATAL, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void log(Level level, String parameterizedMessage, boolean argument) {
+        if (!isEnabled(level)) return;
+        log(level, new ParameterizedMessage(parameterizedMessage, argument));
+    }
+
+
+    @Override
+    public void trace(String parameterizedMessage, char argument) {
+        log(StandardLevel.TRACE, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void debug(String parameterizedMessage, char argument) {
+        log(StandardLevel.DEBUG, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void fine(String parameterizedMessage, char argument) {
+        log(StandardLevel.FINE, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void info(String parameterizedMessage, char argument) {
+        log(StandardLevel.INFORMATION, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void header(String parameterizedMessage, char argument) {
+        log(StandardLevel.HEADER, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void warn(String parameterizedMessage, char argument) {
+        log(StandardLevel.WARNING, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void fail(String parameterizedMessage, char argument) {
+        log(StandardLevel.FAILURE, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void fatal(String parameterizedMessage, char argument) {
+        log(StandardLevel.FATAL, parameterizedMessage, argument);
+    }
+
+    @Override
+    public void log(Level level, String parameterizedMessage, char argument) {
+        if (!isEnabled(level)) return;
+        log(level, new ParameterizedMessage(parameterizedMessage, argument));
+    }
+
+
     @Override
     public void trace(Object message) {
         log(StandardLevel.TRACE, message);
@@ -207,6 +693,7 @@ public abstract class AbstractLogger implements Logger {
 
     @Override
     public void throwable(Level level, Throwable throwable, Object message) {
+        if (!isEnabled(level)) return;
         log(level, message + "%n" + throwableToString(throwable));
     }
 
@@ -217,7 +704,18 @@ public abstract class AbstractLogger implements Logger {
 
     @Override
     public void log(Level level, Object message) {
-        tryLog(new LogEntry(level, message, null));
+        if (!isEnabled(level)) return;
+        tryLog(level, message, null);
+    }
+
+    private void tryLog(Level level, Object message, LazyMessage lazyMessage) {
+        LogEntryPool entryPool = this.entryPool;
+        LogEntry entry = entryPool == null ? new LogEntry(level, message, lazyMessage) : entryPool.acquire(level, message, lazyMessage);
+        try {
+            tryLog(entry);
+        } finally {
+            entry.release();
+        }
     }
 
     protected abstract void tryLog(LogEntry entry);
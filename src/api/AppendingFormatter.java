@@ -0,0 +1,53 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.api;
+
+import eu.menzani.logger.impl.EvaluationException;
+import eu.menzani.logger.impl.LogEntry;
+import eu.menzani.logger.impl.PipelineLoggerException;
+
+/**
+ * A formatter that writes straight into the buffer of the entry being produced,
+ * so that producing an entry needs no intermediate strings.
+ */
+public interface AppendingFormatter extends Formatter {
+    /**
+     * @return {@code false} to drop the entry, like {@link #format(LogEntry)} returning {@code null}.
+     */
+    boolean formatTo(LogEntry entry, StringBuilder builder) throws Exception;
+
+    @Override
+    default String format(LogEntry entry) throws Exception {
+        StringBuilder builder = new StringBuilder();
+        if (formatTo(entry, builder)) {
+            return builder.toString();
+        }
+        return null;
+    }
+
+    default boolean appendTo(LogEntry entry, StringBuilder builder, AbstractLogger logger) {
+        try {
+            return formatTo(entry, builder);
+        } catch (EvaluationException e) {
+            Object message = "Could not evaluate lazy message at level: " + entry.getLevel().getMarker();
+            logger.throwable(AbstractLogger.ReservedLevel.ERROR, e.getCause(), message);
+        } catch (Exception e) {
+            logger.throwException(new PipelineLoggerException(e, PipelineLoggerException.PipelineElement.FORMATTER, this));
+        }
+        return false;
+    }
+}
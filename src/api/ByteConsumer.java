@@ -0,0 +1,50 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.api;
+
+import eu.menzani.logger.impl.EntryEncoder;
+import eu.menzani.logger.impl.LogEntry;
+import eu.menzani.logger.impl.PipelineLoggerException;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A consumer of entries already encoded by the {@link EntryEncoder} of the producer.
+ * <p/>
+ * {@code encodedEntry} holds the entry followed by the line separator between its position and limit.
+ * It is shared with the other byte consumers of the pipeline: consumers may move its position,
+ * but must not modify its content or retain it after returning.
+ */
+public interface ByteConsumer extends Consumer {
+    void consume(LogEntry entry, ByteBuffer encodedEntry) throws Exception;
+
+    @Override
+    default void consume(LogEntry entry, String formattedEntry) throws Exception {
+        EntryEncoder encoder = EntryEncoder.defaultEncoder;
+        ByteBuffer encodedEntry = encoder.encode(formattedEntry);
+        consume(entry, encodedEntry);
+        encoder.release(encodedEntry);
+    }
+
+    default void accept(LogEntry entry, ByteBuffer encodedEntry, AbstractLogger logger) {
+        try {
+            consume(entry, encodedEntry);
+        } catch (Exception e) {
+            logger.throwException(new PipelineLoggerException(e, PipelineLoggerException.PipelineElement.CONSUMER, this));
+        }
+    }
+}
@@ -19,6 +19,10 @@ package eu.menzani.logger.api;
 import eu.menzani.logger.impl.LogEntry;
 import eu.menzani.logger.impl.PipelineLoggerException;
 
+/**
+ * When the logger uses a {@link eu.menzani.logger.impl.LogEntryPool}, {@code entry} is recycled for another message
+ * once every consumer has returned, so it must not be retained: copy what is needed instead.
+ */
 public interface Consumer {
     void consume(LogEntry entry, String formattedEntry) throws Exception;
 
@@ -19,6 +19,12 @@ package eu.menzani.logger.api;
 import eu.menzani.logger.Cloneable;
 
 public interface Logger extends Named, Toggleable, Cloneable<Logger> {
+    /**
+     * @return {@code false} if entries of {@code level} would certainly be discarded,
+     * so that callers can skip computing expensive arguments.
+     */
+    boolean isEnabled(Level level);
+
     void trace(LazyMessage lazyMessage);
 
     void debug(LazyMessage lazyMessage);
@@ -65,6 +71,177 @@ public interface Logger extends Named, Toggleable, Cloneable<Logger> {
     void log(Level level, String parameterizedMessage, Object... arguments);
 
 
+    void trace(String parameterizedMessage, Object argument);
+
+    void debug(String parameterizedMessage, Object argument);
+
+    void fine(String parameterizedMessage, Object argument);
+
+    void info(String parameterizedMessage, Object argument);
+
+    void header(String parameterizedMessage, Object argument);
+
+    void warn(String parameterizedMessage, Object argument);
+
+    void fail(String parameterizedMessage, Object argument);
+
+    void fatal(String parameterizedMessage, Object argument);
+
+    void log(Level level, String parameterizedMessage, Object argument);
+
+
+    void trace(String parameterizedMessage, Object argument0, Object argument1);
+
+    void debug(String parameterizedMessage, Object argument0, Object argument1);
+
+    void fine(String parameterizedMessage, Object argument0, Object argument1);
+
+    void info(String parameterizedMessage, Object argument0, Object argument1);
+
+    void header(String parameterizedMessage, Object argument0, Object argument1);
+
+    void warn(String parameterizedMessage, Object argument0, Object argument1);
+
+    void fail(String parameterizedMessage, Object argument0, Object argument1);
+
+    void fatal(String parameterizedMessage, Object argument0, Object argument1);
+
+    void log(Level level, String parameterizedMessage, Object argument0, Object argument1);
+
+
+    void trace(String parameterizedMessage, Object argument0, Object argument1, Object argument2);
+
+    void debug(String parameterizedMessage, Object argument0, Object argument1, Object argument2);
+
+    void fine(String parameterizedMessage, Object argument0, Object argument1, Object argument2);
+
+    void info(String parameterizedMessage, Object argument0, Object argument1, Object argument2);
+
+    void header(String parameterizedMessage, Object argument0, Object argument1, Object argument2);
+
+    void warn(String parameterizedMessage, Object argument0, Object argument1, Object argument2);
+
+    void fail(String parameterizedMessage, Object argument0, Object argument1, Object argument2);
+
+    void fatal(String parameterizedMessage, Object argument0, Object argument1, Object argument2);
+
+    void log(Level level, String parameterizedMessage, Object argument0, Object argument1, Object argument2);
+
+
+    void trace(String parameterizedMessage, Object argument0, Object argument1, Object argument2, Object argument3);
+
+    void debug(String parameterizedMessage, Object argument0, Object argument1, Object argument2, Object argument3);
+
+    void fine(String parameterizedMessage, Object argument0, Object argument1, Object argument2, Object argument3);
+
+    void info(String parameterizedMessage, Object argument0, Object argument1, Object argument2, Object argument3);
+
+    void header(String parameterizedMessage, Object argument0, Object argument1, Object argument2, Object argument3);
+
+    void warn(String parameterizedMessage, Object argument0, Object argument1, Object argument2, Object argument3);
+
+    void fail(String parameterizedMessage, Object argument0, Object argument1, Object argument2, Object argument3);
+
+    void fatal(String parameterizedMessage, Object argument0, Object argument1, Object argument2, Object argument3);
+
+    void log(Level level, String parameterizedMessage, Object argument0, Object argument1, Object argument2, Object argument3);
+
+
+    void trace(String parameterizedMessage, int argument);
+
+    void debug(String parameterizedMessage, int argument);
+
+    void fine(String parameterizedMessage, int argument);
+
+    void info(String parameterizedMessage, int argument);
+
+    void header(String parameterizedMessage, int argument);
+
+    void warn(String parameterizedMessage, int argument);
+
+    void fail(String parameterizedMessage, int argument);
+
+    void fatal(String parameterizedMessage, int argument);
+
+    void log(Level level, String parameterizedMessage, int argument);
+
+
+    void trace(String parameterizedMessage, long argument);
+
+    void debug(String parameterizedMessage, long argument);
+
+    void fine(String parameterizedMessage, long argument);
+
+    void info(String parameterizedMessage, long argument);
+
+    void header(String parameterizedMessage, long argument);
+
+    void warn(String parameterizedMessage, long argument);
+
+    void fail(String parameterizedMessage, long argument);
+
+    void fatal(String parameterizedMessage, long argument);
+
+    void log(Level level, String parameterizedMessage, long argument);
+
+
+    void trace(String parameterizedMessage, double argument);
+
+    void debug(String parameterizedMessage, double argument);
+
+    void fine(String parameterizedMessage, double argument);
+
+    void info(String parameterizedMessage, double argument);
+
+    void header(String parameterizedMessage, double argument);
+
+    void warn(String parameterizedMessage, double argument);
+
+    void fail(String parameterizedMessage, double argument);
+
+    void fatal(String parameterizedMessage, double argument);
+
+    void log(Level level, String parameterizedMessage, double argument);
+
+
+    void trace(String parameterizedMessage, boolean argument);
+
+    void debug(String parameterizedMessage, boolean argument);
+
+    void fine(String parameterizedMessage, boolean argument);
+
+    void info(String parameterizedMessage, boolean argument);
+
+    void header(String parameterizedMessage, boolean argument);
+
+    void warn(String parameterizedMessage, boolean argument);
+
+    void fail(String parameterizedMessage, boolean argument);
+
+    void fatal(String parameterizedMessage, boolean argument);
+
+    void log(Level level, String parameterizedMessage, boolean argument);
+
+
+    void trace(String parameterizedMessage, char argument);
+
+    void debug(String parameterizedMessage, char argument);
+
+    void fine(String parameterizedMessage, char argument);
+
+    void info(String parameterizedMessage, char argument);
+
+    void header(String parameterizedMessage, char argument);
+
+    void warn(String parameterizedMessage, char argument);
+
+    void fail(String parameterizedMessage, char argument);
+
+    void fatal(String parameterizedMessage, char argument);
+
+    void log(Level level, String parameterizedMessage, char argument);
+
+
     void trace(Object message);
 
     void debug(Object message);
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.api;
+
+/**
+ * Rewrites the characters of messages which a layout cannot contain verbatim.
+ * <p/>
+ * Messages with nothing to rewrite are detected by {@link #indexOfNext(CharSequence, int)}
+ * and can then be used as they are, without copying.
+ */
+public interface MessageNormalizer {
+    /**
+     * @return the index of the first character at or after {@code from} which must be rewritten, or {@code -1}.
+     */
+    int indexOfNext(CharSequence text, int from);
+
+    /**
+     * Appends the replacement of the characters at {@code index},
+     * which was returned by {@link #indexOfNext(CharSequence, int)}.
+     *
+     * @return how many characters were replaced, at least one.
+     */
+    int replace(CharSequence text, int index, StringBuilder builder);
+
+    default void normalizeTo(CharSequence text, StringBuilder builder) {
+        int start = 0;
+        int index;
+        while ((index = indexOfNext(text, start)) != -1) {
+            builder.append(text, start, index);
+            start = index + replace(text, index, builder);
+        }
+        builder.append(text, start, text.length());
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.api;
+
+import eu.menzani.logger.RingBuffer;
+import eu.menzani.logger.impl.LogEntry;
+
+public interface OverflowPolicy {
+    /**
+     * Invoked by the logging thread when {@code entry} could not be offered to {@code buffer} because it was full.
+     * Entries that are dropped, whether {@code entry} or ones evicted from {@code buffer}, must be {@linkplain LogEntry#release() released}.
+     * If interrupted, {@code entry} was not enqueued and is released by the caller.
+     */
+    void overflow(RingBuffer<LogEntry> buffer, LogEntry entry) throws InterruptedException;
+
+    long getDroppedCount();
+}
@@ -27,6 +27,8 @@ import java.util.concurrent.CopyOnWriteArraySet;
 
 public abstract class PipelineLogger extends ToggleableNamedLogger {
     private final Set<Pipeline> pipelines = new CopyOnWriteArraySet<>();
+    private final Runnable verbosityListener = this::updateMaximumVerbosity;
+    private volatile int maximumVerbosity = Integer.MIN_VALUE;
 
     protected PipelineLogger() {
         super();
@@ -48,16 +50,42 @@ public abstract class PipelineLogger extends ToggleableNamedLogger {
     }
 
     public PipelineLogger setPipelines(Pipeline... pipelines) {
+        for (Pipeline pipeline : this.pipelines) {
+            pipeline.removeVerbosityListener(verbosityListener);
+        }
         this.pipelines.clear();
-        Collections.addAll(this.pipelines, pipelines);
+        for (Pipeline pipeline : pipelines) {
+            this.pipelines.add(pipeline);
+            pipeline.addVerbosityListener(verbosityListener);
+        }
+        updateMaximumVerbosity();
         return this;
     }
 
     public PipelineLogger addPipeline(Pipeline pipeline) {
         pipelines.add(pipeline);
+        pipeline.addVerbosityListener(verbosityListener);
+        updateMaximumVerbosity();
         return this;
     }
 
+    /**
+     * Checks {@code level} against the most verbose level accepted by any pipeline,
+     * which is cached and updated whenever pipelines or their filters change.
+     */
+    @Override
+    public boolean isEnabled(Level level) {
+        return level.getVerbosity() <= maximumVerbosity && super.isEnabled(level);
+    }
+
+    private synchronized void updateMaximumVerbosity() {
+        int maximumVerbosity = Integer.MIN_VALUE;
+        for (Pipeline pipeline : pipelines) {
+            maximumVerbosity = Math.max(maximumVerbosity, pipeline.getMaximumVerbosity());
+        }
+        this.maximumVerbosity = maximumVerbosity;
+    }
+
     public PipelineLogger profiled() {
         return profiled(profilerBuilder()
                 .withMessageFormat(getName().orElse(getClass().getSimpleName()) + ": {ELAPSED}"));
@@ -35,6 +35,12 @@ public final class ProfiledLogger extends PipelineLogger {
         return this;
     }
 
+    @Override
+    public PipelineLogger setEpochClock(EpochClock epochClock) {
+        builder.logger.setEpochClock(epochClock);
+        return this;
+    }
+
     @Override
     public PipelineLogger setExceptionHandler(ExceptionHandler exceptionHandler) {
         builder.logger.setExceptionHandler(exceptionHandler);
@@ -58,6 +64,11 @@ public final class ProfiledLogger extends PipelineLogger {
         return this;
     }
 
+    @Override
+    public boolean isEnabled(Level level) {
+        return builder.logger.isEnabled(level) && !isDisabled();
+    }
+
     @Override
     public PipelineLogger profiled() {
         throw newProfilingActiveException();
@@ -20,12 +20,49 @@ import eu.menzani.logger.impl.RotationException;
 
 import java.nio.file.Path;
 import java.time.temporal.Temporal;
+import java.util.Optional;
 
 public interface RotationPolicy {
     void initialize(Path root, Temporal timestamp) throws Exception;
 
     Path currentFile(Path root, Temporal timestamp) throws Exception;
 
+    /**
+     * Lets consumers skip {@link #currentFile(Path, Temporal)} until the returned deadline is reached.
+     *
+     * @return the epoch nanoseconds from which the current file for {@code timestamp} may change,
+     * {@link Long#MAX_VALUE} if it never changes, or {@link Long#MIN_VALUE} if the current file must be asked for every entry.
+     */
+    default long nextRotation(Temporal timestamp) throws Exception {
+        return Long.MIN_VALUE;
+    }
+
+    /**
+     * Lets consumers open the file for {@code timestamp}, which is a {@linkplain #nextRotation(Temporal) deadline},
+     * ahead of time. Must not change what {@link #currentFile(Path, Temporal)} returns before the deadline.
+     *
+     * @return the file that {@link #currentFile(Path, Temporal)} will return for {@code timestamp}, if known in advance.
+     */
+    default Optional<Path> upcomingFile(Path root, Temporal timestamp) throws Exception {
+        return Optional.empty();
+    }
+
+    /**
+     * @return the size in bytes which files must not exceed, unless a single entry is larger,
+     * or {@link Long#MAX_VALUE} if files are not rotated by size.
+     */
+    default long getMaximumSize() {
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Called when the current file has reached {@link #getMaximumSize()}:
+     * from now on, {@link #currentFile(Path, Temporal)} must return a new file.
+     */
+    default void startNextFile(Path root, Temporal timestamp) throws Exception {
+        throw new UnsupportedOperationException();
+    }
+
     default void doInitialize(Path root, Temporal timestamp) {
         try {
             initialize(root, timestamp);
@@ -45,4 +82,34 @@ public interface RotationPolicy {
             throw new RotationException(e);
         }
     }
+
+    default void doStartNextFile(Path root, Temporal timestamp) {
+        try {
+            startNextFile(root, timestamp);
+        } catch (RotationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RotationException(e);
+        }
+    }
+
+    default Optional<Path> getUpcomingFile(Path root, Temporal timestamp) {
+        try {
+            return upcomingFile(root, timestamp);
+        } catch (RotationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RotationException(e);
+        }
+    }
+
+    default long getNextRotation(Temporal timestamp) {
+        try {
+            return nextRotation(timestamp);
+        } catch (RotationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RotationException(e);
+        }
+    }
 }
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.api;
+
+import eu.menzani.logger.RingBuffer;
+
+public interface WaitStrategy {
+    /**
+     * Invoked by a dispatcher thread after {@code idleCount} consecutive empty polls of {@code buffer}.
+     * It must return within {@code timeoutNanos}, and may return at any earlier time.
+     */
+    void idle(int idleCount, RingBuffer<?> buffer, long timeoutNanos) throws InterruptedException;
+
+    /**
+     * Invoked by logging threads after they have published to the buffer.
+     */
+    default void signal() {
+    }
+
+    long getSpinCount();
+
+    long getParkCount();
+}
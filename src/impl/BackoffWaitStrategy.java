@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import eu.menzani.logger.RingBuffer;
+import eu.menzani.logger.api.WaitStrategy;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Spins, then yields, then parks for exponentially longer periods, from {@code minParkNanos} up to {@code maxParkNanos}.
+ * Logging threads never have to signal the dispatcher.
+ */
+public final class BackoffWaitStrategy implements WaitStrategy {
+    private final int spins;
+    private final int yields;
+    private final long minParkNanos;
+    private final long maxParkNanos;
+    private final LongAdder spinCount = new LongAdder();
+    private final LongAdder parkCount = new LongAdder();
+
+    public BackoffWaitStrategy() {
+        this(100, 10, TimeUnit.MICROSECONDS.toNanos(1), TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    public BackoffWaitStrategy(int spins, int yields, long minParkNanos, long maxParkNanos) {
+        if (spins < 0) {
+            throw new IllegalArgumentException("spins must not be negative.");
+        }
+        if (yields < 0) {
+            throw new IllegalArgumentException("yields must not be negative.");
+        }
+        if (minParkNanos < 1 || maxParkNanos < minParkNanos) {
+            throw new IllegalArgumentException("minParkNanos must be positive and not greater than maxParkNanos.");
+        }
+        this.spins = spins;
+        this.yields = yields;
+        this.minParkNanos = minParkNanos;
+        this.maxParkNanos = maxParkNanos;
+    }
+
+    @Override
+    public void idle(int idleCount, RingBuffer<?> buffer, long timeoutNanos) {
+        if (idleCount < spins) {
+            spinCount.increment();
+            Thread.onSpinWait();
+        } else if (idleCount < spins + yields) {
+            spinCount.increment();
+            Thread.yield();
+        } else {
+            parkCount.increment();
+            int shift = Math.min(idleCount - spins - yields, 62);
+            long parkNanos = minParkNanos << shift;
+            if (parkNanos <= 0 || parkNanos > maxParkNanos) {
+                parkNanos = maxParkNanos;
+            }
+            LockSupport.parkNanos(this, Math.min(parkNanos, timeoutNanos));
+        }
+    }
+
+    @Override
+    public long getSpinCount() {
+        return spinCount.sum();
+    }
+
+    @Override
+    public long getParkCount() {
+        return parkCount.sum();
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import eu.menzani.logger.RingBuffer;
+import eu.menzani.logger.api.OverflowPolicy;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+public final class BlockingOverflowPolicy implements OverflowPolicy {
+    private static final long minParkNanos = TimeUnit.MICROSECONDS.toNanos(10);
+    private static final long maxParkNanos = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final int spins;
+    private final LongAdder blockedCount = new LongAdder();
+
+    public BlockingOverflowPolicy() {
+        this(0);
+    }
+
+    public BlockingOverflowPolicy(int spins) {
+        if (spins < 0) {
+            throw new IllegalArgumentException("spins must not be negative.");
+        }
+        this.spins = spins;
+    }
+
+    @Override
+    public void overflow(RingBuffer<LogEntry> buffer, LogEntry entry) throws InterruptedException {
+        blockedCount.increment();
+        for (int i = 0; i < spins; i++) {
+            Thread.onSpinWait();
+            if (buffer.offer(entry)) return;
+        }
+        long parkNanos = minParkNanos;
+        while (!buffer.offer(entry)) {
+            LockSupport.parkNanos(this, parkNanos);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            parkNanos = Math.min(parkNanos * 2, maxParkNanos);
+        }
+    }
+
+    @Override
+    public long getDroppedCount() {
+        return 0;
+    }
+
+    public long getBlockedCount() {
+        return blockedCount.sum();
+    }
+}
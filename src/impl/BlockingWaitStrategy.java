@@ -0,0 +1,73 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import eu.menzani.logger.RingBuffer;
+import eu.menzani.logger.api.WaitStrategy;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Blocks the dispatcher until a logging thread signals it.
+ * Logging threads only take the lock when a dispatcher is actually waiting.
+ */
+public final class BlockingWaitStrategy implements WaitStrategy {
+    private final Lock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final LongAdder parkCount = new LongAdder();
+
+    @Override
+    public void idle(int idleCount, RingBuffer<?> buffer, long timeoutNanos) throws InterruptedException {
+        waiters.incrementAndGet();
+        lock.lock();
+        try {
+            if (buffer.isEmpty()) {
+                parkCount.increment();
+                notEmpty.awaitNanos(timeoutNanos);
+            }
+        } finally {
+            lock.unlock();
+            waiters.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void signal() {
+        if (waiters.get() == 0) return;
+        lock.lock();
+        try {
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getSpinCount() {
+        return 0;
+    }
+
+    @Override
+    public long getParkCount() {
+        return parkCount.sum();
+    }
+}
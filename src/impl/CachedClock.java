@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import eu.menzani.logger.ConfigurableThreadFactory;
+import eu.menzani.logger.Objects;
+import eu.menzani.logger.api.Clock;
+import eu.menzani.logger.api.EpochClock;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.Temporal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A clock that a daemon thread refreshes every {@code resolution}, so that reading it is a single volatile read.
+ * It can be used both as a {@link Clock} and as an {@link EpochClock}.
+ * <p/>
+ * When {@code interpolated}, {@link #nanos()} adds the {@link System#nanoTime()} elapsed since the last tick,
+ * up to {@code resolution}, so that entries logged within the same tick are still ordered
+ * while readings never run ahead of the next tick.
+ * {@link #now()} always returns the value cached at the last tick.
+ */
+public final class CachedClock implements Clock, EpochClock, AutoCloseable {
+    private final long resolutionNanos;
+    private final boolean interpolated;
+    private final Thread ticker;
+    private volatile long sequence; // Odd while a tick is being written
+    private volatile long epochNanos;
+    private volatile long nanoTime;
+    private volatile Timestamp timestamp;
+    private volatile boolean running = true;
+
+    public CachedClock() {
+        this(1, TimeUnit.MILLISECONDS, false);
+    }
+
+    public CachedClock(long resolution, TimeUnit unit, boolean interpolated) {
+        if (resolution < 1) {
+            throw new IllegalArgumentException("resolution must be positive.");
+        }
+        resolutionNanos = Objects.objectNotNull(unit, "unit").toNanos(resolution);
+        this.interpolated = interpolated;
+        tick();
+        ticker = ConfigurableThreadFactory.daemon("CachedClock ticker").newThread(this::run);
+        ticker.start();
+    }
+
+    public long getResolutionNanos() {
+        return resolutionNanos;
+    }
+
+    public boolean isInterpolated() {
+        return interpolated;
+    }
+
+    @Override
+    public long nanos() {
+        if (!interpolated) {
+            return epochNanos;
+        }
+        long sequence, epochNanos, nanoTime;
+        do {
+            sequence = this.sequence;
+            epochNanos = this.epochNanos;
+            nanoTime = this.nanoTime;
+        } while ((sequence & 1L) != 0L || sequence != this.sequence);
+        return epochNanos + Math.min(System.nanoTime() - nanoTime, resolutionNanos);
+    }
+
+    @Override
+    public Temporal now() {
+        long epochNanos = this.epochNanos;
+        Timestamp timestamp = this.timestamp;
+        if (timestamp == null || timestamp.epochNanos != epochNanos) {
+            timestamp = new Timestamp(epochNanos);
+            this.timestamp = timestamp;
+        }
+        return timestamp.value;
+    }
+
+    private void run() {
+        while (running) {
+            LockSupport.parkNanos(this, resolutionNanos);
+            tick();
+        }
+    }
+
+    private void tick() {
+        sequence++;
+        nanoTime = System.nanoTime();
+        epochNanos = SystemEpochClock.instance.nanos();
+        sequence++;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(ticker);
+    }
+
+    private static final class Timestamp {
+        private final long epochNanos;
+        private final LocalDateTime value;
+
+        private Timestamp(long epochNanos) {
+            this.epochNanos = epochNanos;
+            value = LocalDateTime.ofInstant(Instant.ofEpochSecond(0L, epochNanos), ZoneId.systemDefault());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import eu.menzani.logger.Objects;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Learns how long each pipeline component takes, as an exponentially weighted moving average,
+ * so that {@link ParallelLogger} can run the ones cheaper than {@code inlineThreshold} on the pipeline thread
+ * instead of handing them off to its executor.
+ * <p/>
+ * A component that has never been measured is run inline once.
+ */
+public final class CostModel {
+    private volatile long inlineThresholdNanos;
+    private volatile Map<Object, Cost> costs = new IdentityHashMap<>();
+
+    public CostModel() {
+        this(20, TimeUnit.MICROSECONDS);
+    }
+
+    public CostModel(long inlineThreshold, TimeUnit unit) {
+        setInlineThreshold(inlineThreshold, unit);
+    }
+
+    public CostModel setInlineThreshold(long inlineThreshold, TimeUnit unit) {
+        if (inlineThreshold < 0) {
+            throw new IllegalArgumentException("inlineThreshold must not be negative.");
+        }
+        inlineThresholdNanos = Objects.objectNotNull(unit, "unit").toNanos(inlineThreshold);
+        return this;
+    }
+
+    public long getInlineThresholdNanos() {
+        return inlineThresholdNanos;
+    }
+
+    public OptionalLong getAverageCostNanos(Object component) {
+        Cost cost = costs.get(Objects.objectNotNull(component, "component"));
+        if (cost == null) return OptionalLong.empty();
+        return OptionalLong.of(cost.averageNanos);
+    }
+
+    public Map<Object, Long> getAverageCostsNanos() {
+        Map<Object, Long> averageCosts = new IdentityHashMap<>();
+        costs.forEach((component, cost) -> averageCosts.put(component, cost.averageNanos));
+        return averageCosts;
+    }
+
+    public boolean isInlined(Object component) {
+        Cost cost = costs.get(component);
+        return cost == null || cost.averageNanos <= inlineThresholdNanos;
+    }
+
+    <V> V call(Object component, Callable<V> callable) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return callable.call();
+        } finally {
+            record(component, System.nanoTime() - start);
+        }
+    }
+
+    <V> Callable<V> measured(Object component, Callable<V> callable) {
+        return () -> call(component, callable);
+    }
+
+    private void record(Object component, long nanos) {
+        Cost cost = costs.get(component);
+        if (cost == null) {
+            cost = newCost(component, nanos);
+        }
+        cost.update(nanos);
+    }
+
+    private synchronized Cost newCost(Object component, long nanos) {
+        Cost cost = costs.get(component);
+        if (cost == null) {
+            cost = new Cost(nanos);
+            Map<Object, Cost> costs = new IdentityHashMap<>(this.costs);
+            costs.put(component, cost);
+            this.costs = costs;
+        }
+        return cost;
+    }
+
+    public synchronized void reset() {
+        costs = new IdentityHashMap<>();
+    }
+
+    private static final class Cost {
+        private volatile long averageNanos;
+
+        private Cost(long nanos) {
+            averageNanos = nanos;
+        }
+
+        private void update(long nanos) {
+            long averageNanos = this.averageNanos;
+            this.averageNanos = averageNanos + (nanos - averageNanos) / 8;
+        }
+    }
+}
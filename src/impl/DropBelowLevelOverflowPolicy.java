@@ -0,0 +1,62 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import eu.menzani.logger.Objects;
+import eu.menzani.logger.RingBuffer;
+import eu.menzani.logger.api.Level;
+import eu.menzani.logger.api.OverflowPolicy;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drops entries more verbose than {@code level} and hands all other entries to another policy,
+ * {@link BlockingOverflowPolicy} by default.
+ */
+public final class DropBelowLevelOverflowPolicy implements OverflowPolicy {
+    private final Level level;
+    private final OverflowPolicy fallback;
+    private final LongAdder droppedCount = new LongAdder();
+
+    public DropBelowLevelOverflowPolicy(Level level) {
+        this(level, new BlockingOverflowPolicy());
+    }
+
+    public DropBelowLevelOverflowPolicy(Level level, OverflowPolicy fallback) {
+        this.level = Objects.objectNotNull(level, "level");
+        this.fallback = Objects.objectNotNull(fallback, "fallback");
+    }
+
+    @Override
+    public void overflow(RingBuffer<LogEntry> buffer, LogEntry entry) throws InterruptedException {
+        if (entry.getLevel().compareTo(level) == Level.Verbosity.GREATER) {
+            droppedCount.increment();
+            entry.release();
+        } else {
+            fallback.overflow(buffer, entry);
+        }
+    }
+
+    @Override
+    public long getDroppedCount() {
+        return droppedCount.sum() + fallback.getDroppedCount();
+    }
+
+    public OverflowPolicy getFallback() {
+        return fallback;
+    }
+}
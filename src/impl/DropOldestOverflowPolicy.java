@@ -0,0 +1,42 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import eu.menzani.logger.RingBuffer;
+import eu.menzani.logger.api.OverflowPolicy;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public final class DropOldestOverflowPolicy implements OverflowPolicy {
+    private final LongAdder droppedCount = new LongAdder();
+
+    @Override
+    public void overflow(RingBuffer<LogEntry> buffer, LogEntry entry) {
+        do {
+            LogEntry oldest = buffer.poll();
+            if (oldest != null) {
+                droppedCount.increment();
+                oldest.release();
+            }
+        } while (!buffer.offer(entry));
+    }
+
+    @Override
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import eu.menzani.logger.Objects;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes produced entries, followed by the system line separator, into a per-thread {@link ByteBuffer}
+ * that byte consumers share, so that each entry is encoded once per pipeline.
+ * <p/>
+ * Characters below {@code 0x80}, or {@code 0x100} for ISO-8859-1, are copied as bytes;
+ * the charset encoder only runs from the first character that needs it.
+ */
+public final class EntryEncoder {
+    public static final EntryEncoder defaultEncoder = new EntryEncoder(Charset.defaultCharset(), false);
+
+    private static final int initialCapacity = 256;
+    private static final int maximumCapacity = 1 << 16;
+
+    private final Charset charset;
+    private final boolean direct;
+    private final char fastPathLimit;
+    private final byte[] lineSeparator;
+    private final ThreadLocal<ByteBuffer> buffers = new ThreadLocal<>();
+    private final ThreadLocal<CharsetEncoder> encoders;
+
+    public EntryEncoder(Charset charset, boolean direct) {
+        this.charset = Objects.objectNotNull(charset, "charset");
+        this.direct = direct;
+        if (charset.equals(StandardCharsets.ISO_8859_1)) {
+            fastPathLimit = 0x100;
+        } else if (charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII)) {
+            fastPathLimit = 0x80;
+        } else {
+            fastPathLimit = 0;
+        }
+        lineSeparator = System.lineSeparator().getBytes(charset);
+        encoders = ThreadLocal.withInitial(() -> charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE));
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    public boolean isDirect() {
+        return direct;
+    }
+
+    /**
+     * @return a buffer ready to be read, which belongs to the caller until it is {@linkplain #release(ByteBuffer) released}.
+     */
+    public ByteBuffer encode(CharSequence entry) {
+        ByteBuffer buffer = buffers.get();
+        int length = entry.length();
+        int minimumCapacity = length + lineSeparator.length;
+        if (buffer == null || buffer.capacity() < minimumCapacity) {
+            buffer = allocate(Math.max(initialCapacity, minimumCapacity));
+        } else {
+            buffers.set(null);
+            buffer.clear();
+        }
+        int i = 0;
+        for (; i < length; i++) {
+            char c = entry.charAt(i);
+            if (c >= fastPathLimit) break;
+            buffer.put((byte) c);
+        }
+        if (i < length) {
+            buffer = encode(CharBuffer.wrap(entry, i, length), buffer);
+        }
+        if (buffer.remaining() < lineSeparator.length) {
+            buffer = grow(buffer);
+        }
+        buffer.put(lineSeparator);
+        return buffer.flip();
+    }
+
+    private ByteBuffer encode(CharBuffer input, ByteBuffer buffer) {
+        CharsetEncoder encoder = encoders.get().reset();
+        try {
+            CoderResult result;
+            while ((result = encoder.encode(input, buffer, true)).isOverflow()) {
+                buffer = grow(buffer);
+            }
+            if (result.isError()) {
+                result.throwException();
+            }
+            while ((result = encoder.flush(buffer)).isOverflow()) {
+                buffer = grow(buffer);
+            }
+        } catch (CharacterCodingException e) {
+            throw new AssertionError(e);
+        }
+        return buffer;
+    }
+
+    private ByteBuffer grow(ByteBuffer buffer) {
+        ByteBuffer grown = allocate(buffer.capacity() * 2);
+        return grown.put(buffer.flip());
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        if (direct) {
+            return ByteBuffer.allocateDirect(capacity);
+        }
+        return ByteBuffer.allocate(capacity);
+    }
+
+    public void release(ByteBuffer buffer) {
+        if (buffer.capacity() <= maximumCapacity) {
+            buffers.set(buffer);
+        }
+    }
+}
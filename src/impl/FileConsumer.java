@@ -16,33 +16,268 @@
 
 package eu.menzani.logger.impl;
 
-import eu.menzani.logger.ConcurrentLazy;
-import eu.menzani.logger.Lazy;
+import eu.menzani.logger.ConfigurableThreadFactory;
 import eu.menzani.logger.Objects;
-import eu.menzani.logger.api.Consumer;
+import eu.menzani.logger.api.ByteConsumer;
 
+import java.io.Flushable;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Buffers entries and writes them to the file according to a {@link FlushPolicy}.
+ * <p/>
+ * Entries which arrive while the buffer is being written go to a second buffer,
+ * so that they are written together by the next flush.
+ * Open consumers are flushed on shutdown; {@link ParallelLogger} flushes its consumers after draining its queue.
+ * Failures of flushes in the background are thrown by the next call to {@link #consume(LogEntry, ByteBuffer)},
+ * {@link #flush()} or {@link #close()}; the entries which were not written are kept.
+ * <p/>
+ * Logging from an interrupted thread does not close the file, and the interrupt status of that thread is preserved.
+ */
+public final class FileConsumer implements ByteConsumer, Flushable, AutoCloseable {
+    private static final int defaultBufferCapacity = 1 << 16;
+    private static final ScheduledExecutorService flusher =
+            Executors.newSingleThreadScheduledExecutor(ConfigurableThreadFactory.daemon("FileConsumer flusher"));
+    private static final Set<FileConsumer> openConsumers = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(FileConsumer::flushOpenConsumers, "FileConsumer shutdown"));
+    }
 
-public final class FileConsumer implements Consumer, Lazy.Initializer<PrintWriter> {
     private final Path file;
-    private final Lazy<PrintWriter> writer = new ConcurrentLazy<>(this);
+    private volatile FlushPolicy policy = new FlushPolicy().setMaximumBytes(0);
+    private final Object appendLock = new Object();
+    private final Object flushLock = new Object();
+    private ByteBuffer activeBuffer; // Guarded by appendLock
+    private ByteBuffer spareBuffer; // Guarded by flushLock, holds what a failed write left behind
+    private volatile FileChannel channel; // Written while holding flushLock
+    private boolean closed; // Guarded by flushLock
+    private boolean flushScheduled; // Guarded by appendLock
+    private volatile long flushCount;
+    private final AtomicReference<IOException> backgroundFailure = new AtomicReference<>();
 
     public FileConsumer(Path file) {
+        this(file, defaultBufferCapacity);
+    }
+
+    public FileConsumer(Path file, int bufferCapacity) {
         this.file = Objects.objectNotNull(file, "file");
+        if (bufferCapacity < 1) {
+            throw new IllegalArgumentException("bufferCapacity must be positive.");
+        }
+        activeBuffer = ByteBuffer.allocateDirect(bufferCapacity);
+        spareBuffer = ByteBuffer.allocateDirect(bufferCapacity);
+        openConsumers.add(this);
+    }
+
+    /**
+     * By default, every entry is written straight away, so that none is lost if the process crashes.
+     * Entries that arrive while another thread is writing are still written together.
+     */
+    public FileConsumer setFlushPolicy(FlushPolicy policy) {
+        this.policy = Objects.objectNotNull(policy, "policy");
+        return this;
+    }
+
+    public FlushPolicy getFlushPolicy() {
+        return policy;
+    }
+
+    /**
+     * @return how many times the buffer was written to the file.
+     */
+    public long getFlushCount() {
+        return flushCount;
     }
 
     @Override
-    public void consume(LogEntry entry, String formattedEntry) throws Exception {
-        PrintWriter writer = this.writer.get();
-        writer.println(formattedEntry);
+    public void consume(LogEntry entry, ByteBuffer encodedEntry) throws Exception {
+        if (channel == null) {
+            synchronized (flushLock) {
+                openChannel();
+            }
+        }
+        FlushPolicy policy = this.policy;
+        boolean flush = false;
+        boolean scheduleFlush = false;
+        boolean oversized = false;
+        while (true) {
+            synchronized (appendLock) {
+                int length = encodedEntry.remaining();
+                if (length <= activeBuffer.remaining()) {
+                    boolean wasEmpty = activeBuffer.position() == 0;
+                    activeBuffer.put(encodedEntry);
+                    flush = policy.shouldFlush(entry, activeBuffer.position());
+                    if (wasEmpty && !flush && policy.hasMaximumDelay() && !flushScheduled) {
+                        flushScheduled = true;
+                        scheduleFlush = true;
+                    }
+                    break;
+                }
+                if (length > activeBuffer.capacity()) {
+                    oversized = true;
+                    break;
+                }
+            }
+            writeBuffers();
+        }
+        if (oversized) {
+            synchronized (flushLock) {
+                writeBuffers();
+                write(encodedEntry);
+            }
+        } else {
+            if (scheduleFlush) {
+                flusher.schedule(this::scheduledFlush, policy.getMaximumDelay(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+            }
+            if (flush) {
+                writeBuffers();
+            }
+        }
+        throwBackgroundFailure();
+    }
+
+    private void scheduledFlush() {
+        synchronized (appendLock) {
+            flushScheduled = false;
+        }
+        try {
+            writeBuffers();
+        } catch (IOException e) {
+            reportBackgroundFailure(e);
+        }
+    }
+
+    private void reportBackgroundFailure(IOException e) {
+        IOException failure = backgroundFailure.compareAndExchange(null, e);
+        if (failure != null) {
+            failure.addSuppressed(e);
+        }
     }
 
+    private void throwBackgroundFailure() throws IOException {
+        if (backgroundFailure.get() == null) return;
+        IOException failure = backgroundFailure.getAndSet(null);
+        if (failure != null) throw failure;
+    }
+
+    /**
+     * Writes the buffer to the file. Entries added meanwhile are left for the next flush.
+     * If writing fails, what was not written is kept and written first by the next flush.
+     */
     @Override
-    public PrintWriter newInstance() throws IOException {
-        return new PrintWriter(Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND), true);
+    public void flush() throws IOException {
+        writeBuffers();
+        throwBackgroundFailure();
+    }
+
+    private void writeBuffers() throws IOException {
+        synchronized (flushLock) {
+            if (spareBuffer.position() != 0) {
+                writeBuffer(spareBuffer);
+            }
+            ByteBuffer pendingBuffer;
+            synchronized (appendLock) {
+                if (activeBuffer.position() == 0) return;
+                pendingBuffer = activeBuffer;
+                activeBuffer = spareBuffer;
+            }
+            spareBuffer = pendingBuffer;
+            writeBuffer(pendingBuffer);
+        }
+    }
+
+    private void writeBuffer(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        boolean written = false;
+        try {
+            write(buffer);
+            written = true;
+        } finally {
+            if (written) {
+                buffer.clear();
+                flushCount++;
+            } else {
+                buffer.compact();
+            }
+        }
+    }
+
+    /**
+     * An interrupt closes a {@link FileChannel} for good, so the interrupt status is cleared while writing
+     * and restored afterwards. Should an interrupt arrive during a write anyway, the file is opened again.
+     * Must be called while holding {@code flushLock}.
+     */
+    private void write(ByteBuffer buffer) throws IOException {
+        boolean interrupted = Thread.interrupted();
+        try {
+            while (buffer.hasRemaining()) {
+                try {
+                    openChannel().write(buffer);
+                } catch (ClosedByInterruptException e) {
+                    interrupted = true;
+                    Thread.interrupted();
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private FileChannel openChannel() throws IOException {
+        if (closed) {
+            throw new ClosedChannelException();
+        }
+        FileChannel channel = this.channel;
+        if (channel == null || !channel.isOpen()) {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            this.channel = channel;
+        }
+        return channel;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (flushLock) {
+            writeBuffers();
+            closed = true;
+            openConsumers.remove(this);
+            FileChannel channel = this.channel;
+            if (channel != null) {
+                channel.close();
+            }
+        }
+        throwBackgroundFailure();
+    }
+
+    static void flushOpenConsumers() {
+        List<FileConsumer> consumers;
+        synchronized (openConsumers) {
+            consumers = new ArrayList<>(openConsumers);
+        }
+        for (FileConsumer consumer : consumers) {
+            try {
+                consumer.writeBuffers();
+            } catch (IOException e) {
+                consumer.reportBackgroundFailure(e);
+            }
+        }
     }
 }
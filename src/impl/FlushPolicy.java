@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides when {@link FileConsumer} writes its buffer to the file. Regardless of the policy,
+ * the buffer is written when it is full, when the consumer is flushed or closed, and on shutdown.
+ */
+public final class FlushPolicy {
+    private int maximumBytes = Integer.MAX_VALUE;
+    private long maximumDelay = Long.MAX_VALUE;
+    private boolean flushOnError;
+
+    /**
+     * Writes the buffer as soon as it holds {@code maximumBytes}.
+     * Zero writes every entry straight away.
+     */
+    public FlushPolicy setMaximumBytes(int maximumBytes) {
+        if (maximumBytes < 0) {
+            throw new IllegalArgumentException("maximumBytes must not be negative.");
+        }
+        this.maximumBytes = maximumBytes;
+        return this;
+    }
+
+    public int getMaximumBytes() {
+        return maximumBytes;
+    }
+
+    /**
+     * Writes the buffer at most {@code maximumDelay} after the oldest entry in it was added.
+     */
+    public FlushPolicy setMaximumDelay(long maximumDelay, TimeUnit unit) {
+        if (maximumDelay < 0) {
+            throw new IllegalArgumentException("maximumDelay must not be negative.");
+        }
+        this.maximumDelay = unit.toNanos(maximumDelay);
+        return this;
+    }
+
+    public long getMaximumDelay(TimeUnit unit) {
+        if (maximumDelay == Long.MAX_VALUE) return Long.MAX_VALUE;
+        return unit.convert(maximumDelay, TimeUnit.NANOSECONDS);
+    }
+
+    boolean hasMaximumDelay() {
+        return maximumDelay != Long.MAX_VALUE;
+    }
+
+    /**
+     * Writes the buffer after each entry whose level {@linkplain eu.menzani.logger.api.Level#isError() is an error}.
+     */
+    public FlushPolicy setFlushOnError(boolean flushOnError) {
+        this.flushOnError = flushOnError;
+        return this;
+    }
+
+    public boolean isFlushOnError() {
+        return flushOnError;
+    }
+
+    boolean shouldFlush(LogEntry entry, int bufferedBytes) {
+        return bufferedBytes >= maximumBytes || flushOnError && entry.getLevel().isError();
+    }
+}
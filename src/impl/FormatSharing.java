@@ -0,0 +1,131 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import eu.menzani.logger.api.AbstractLogger;
+import eu.menzani.logger.api.Formatter;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Finds equal producers and formatters used by more than one pipeline,
+ * so that they format each entry once and the other pipelines reuse the result stored in the entry.
+ */
+final class FormatSharing {
+    private final LongAdder deduplicatedCount = new LongAdder();
+    private volatile Snapshot snapshot = new Snapshot(List.of());
+
+    /**
+     * Rebuilt whenever a producer of {@code pipelines} has changed since the last call.
+     */
+    Snapshot snapshot(Collection<Pipeline> pipelines) {
+        Snapshot snapshot = this.snapshot;
+        if (!snapshot.matches(pipelines)) {
+            snapshot = new Snapshot(pipelines);
+            this.snapshot = snapshot;
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return the snapshot built by the last call to {@link #snapshot(Collection)}.
+     */
+    Snapshot current() {
+        return snapshot;
+    }
+
+    long getDeduplicatedCount() {
+        return deduplicatedCount.sum();
+    }
+
+    Optional<String> lookup(Object key, LogEntry entry) {
+        Optional<String> format = entry.getSharedFormat(key);
+        if (format.isPresent()) {
+            deduplicatedCount.increment();
+        }
+        return format;
+    }
+
+    /**
+     * Produces {@code entry} into {@code buffer}, unless an equal producer already did.
+     */
+    Optional<String> produce(ProducerView producer, LogEntry entry, StringBuilder buffer, AbstractLogger logger, Snapshot sharing) {
+        Optional<String> formattedEntry = lookup(producer, entry);
+        if (formattedEntry.isEmpty()) {
+            buffer.setLength(0);
+            if (!producer.produceTo(entry, buffer, logger, this, sharing)) return Optional.empty();
+            formattedEntry = Optional.of(buffer.toString());
+            entry.putSharedFormat(producer, formattedEntry.get());
+        }
+        return formattedEntry;
+    }
+
+    Optional<String> format(Formatter formatter, LogEntry entry, AbstractLogger logger) {
+        Optional<String> formattedFragment = lookup(formatter, entry);
+        if (formattedFragment.isEmpty()) {
+            formattedFragment = formatter.apply(entry, logger);
+            formattedFragment.ifPresent(fragment -> entry.putSharedFormat(formatter, fragment));
+        }
+        return formattedFragment;
+    }
+
+    static final class Snapshot {
+        private final ProducerView[] producers;
+        private final Set<Object> sharedKeys = new HashSet<>();
+
+        private Snapshot(Collection<Pipeline> pipelines) {
+            producers = pipelines.stream()
+                    .map(Pipeline::getProducer)
+                    .toArray(ProducerView[]::new);
+            Map<Object, Integer> useCounts = new HashMap<>();
+            for (ProducerView producer : producers) {
+                useCounts.merge(producer, 1, Integer::sum);
+                for (Formatter formatter : producer.getFormatters()) {
+                    useCounts.merge(formatter, 1, Integer::sum);
+                }
+            }
+            useCounts.forEach((key, useCount) -> {
+                if (useCount > 1) {
+                    sharedKeys.add(key);
+                }
+            });
+        }
+
+        private boolean matches(Collection<Pipeline> pipelines) {
+            int i = 0;
+            for (Pipeline pipeline : pipelines) {
+                if (i == producers.length || producers[i] != pipeline.getProducer()) return false;
+                i++;
+            }
+            return i == producers.length;
+        }
+
+        /**
+         * @param key a {@link ProducerView} or a formatter.
+         */
+        boolean isShared(Object key) {
+            return !sharedKeys.isEmpty() && sharedKeys.contains(key);
+        }
+    }
+}
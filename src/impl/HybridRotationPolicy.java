@@ -0,0 +1,134 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import eu.menzani.logger.Objects;
+import eu.menzani.logger.StringFormat;
+import eu.menzani.logger.api.RotationPolicy;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalField;
+import java.util.Optional;
+
+/**
+ * Switches to a new file whenever the timestamp enters a new step, like {@link TemporalRotationPolicy},
+ * or the current file reaches a maximum size. Files of the same step are told apart by {@code id},
+ * which starts from the first unused one.
+ * <p/>
+ * The first file of the {@linkplain #upcomingFile(Path, Temporal) upcoming} step is remembered,
+ * so that it is still chosen after consumers have created it.
+ */
+public final class HybridRotationPolicy implements RotationPolicy {
+    private final StringFormat.Template nameTemplate;
+    private final TemporalRotationPolicy temporalPolicy;
+    private final long maximumSize;
+    private String step;
+    private int id;
+    private Path currentFile;
+    private String upcomingStep;
+    private int upcomingId;
+    private Path upcomingFile;
+
+    public HybridRotationPolicy(String nameFormat, DateTimeFormatter timestampFormatter,
+                                int stepWidth, TemporalField stepWidthField, long maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize must be positive.");
+        }
+        nameTemplate = new StringFormat(Objects.objectNotNull(nameFormat, "nameFormat")).compile();
+        temporalPolicy = new TemporalRotationPolicy(nameFormat, timestampFormatter, stepWidth, stepWidthField);
+        this.maximumSize = maximumSize;
+    }
+
+    @Override
+    public void initialize(Path root, Temporal timestamp) {
+        step = null;
+        upcomingStep = null;
+    }
+
+    @Override
+    public Path currentFile(Path root, Temporal timestamp) {
+        String step = temporalPolicy.formatStep(timestamp);
+        if (!step.equals(this.step)) {
+            enterStep(root, step);
+        }
+        return currentFile;
+    }
+
+    @Override
+    public Optional<Path> upcomingFile(Path root, Temporal timestamp) {
+        String step = temporalPolicy.formatStep(timestamp);
+        if (step.equals(this.step)) {
+            return Optional.of(currentFile);
+        }
+        if (!step.equals(upcomingStep)) {
+            upcomingId = nextUnusedId(root, step, 0);
+            upcomingFile = resolve(root, step, upcomingId);
+            upcomingStep = step;
+        }
+        return Optional.of(upcomingFile);
+    }
+
+    @Override
+    public long nextRotation(Temporal timestamp) {
+        return temporalPolicy.nextRotation(timestamp);
+    }
+
+    @Override
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    @Override
+    public void startNextFile(Path root, Temporal timestamp) {
+        String step = temporalPolicy.formatStep(timestamp);
+        if (step.equals(this.step)) {
+            id = nextUnusedId(root, step, id);
+            currentFile = resolve(root, step, id);
+        } else {
+            enterStep(root, step);
+        }
+    }
+
+    private void enterStep(Path root, String step) {
+        this.step = step;
+        if (step.equals(upcomingStep)) {
+            id = upcomingId;
+            currentFile = upcomingFile;
+            upcomingStep = null;
+        } else {
+            id = nextUnusedId(root, step, 0);
+            currentFile = resolve(root, step, id);
+        }
+    }
+
+    private int nextUnusedId(Path root, String step, int id) {
+        while (id < Integer.MAX_VALUE) {
+            id++;
+            if (Files.notExists(resolve(root, step, id))) {
+                return id;
+            }
+        }
+        throw new RotationException("all IDs have been used");
+    }
+
+    private Path resolve(Path root, String step, int id) {
+        return root.resolve(nameTemplate.bind().fill("timestamp", step).fill("id", id).toString());
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import eu.menzani.logger.api.MessageNormalizer;
+
+/**
+ * Escapes messages so that they can be placed inside a JSON string.
+ * <p/>
+ * {@code %n}, {@code \n} and {@code \r\n} all become {@code \n}, like {@link LineSeparatorNormalizer} does.
+ */
+public final class JsonNormalizer implements MessageNormalizer {
+    public static final JsonNormalizer instance = new JsonNormalizer();
+
+    private static final char[] hexDigits = "0123456789abcdef".toCharArray();
+
+    private JsonNormalizer() {
+    }
+
+    @Override
+    public int indexOfNext(CharSequence text, int from) {
+        int length = text.length();
+        for (int i = from; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < ' ' || c == '"' || c == '\\') return i;
+            if (c == '%' && i + 1 < length && text.charAt(i + 1) == 'n') return i;
+        }
+        return -1;
+    }
+
+    @Override
+    public int replace(CharSequence text, int index, StringBuilder builder) {
+        char c = text.charAt(index);
+        switch (c) {
+            case '%':
+                builder.append("\\n");
+                return 2;
+            case '\r':
+                if (index + 1 < text.length() && text.charAt(index + 1) == '\n') {
+                    builder.append("\\n");
+                    return 2;
+                }
+                builder.append("\\r");
+                return 1;
+            case '\n':
+                builder.append("\\n");
+                return 1;
+            case '\t':
+                builder.append("\\t");
+                return 1;
+            case '\b':
+                builder.append("\\b");
+                return 1;
+            case '\f':
+                builder.append("\\f");
+                return 1;
+            case '"':
+                builder.append("\\\"");
+                return 1;
+            case '\\':
+                builder.append("\\\\");
+                return 1;
+            default:
+                builder.append("\\u00").append(hexDigits[c >> 4]).append(hexDigits[c & 0xF]);
+                return 1;
+        }
+    }
+}
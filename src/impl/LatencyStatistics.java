@@ -0,0 +1,57 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class LatencyStatistics {
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maximumNanos = new LongAccumulator(Math::max, 0L);
+
+    void record(long nanos) {
+        count.increment();
+        totalNanos.add(nanos);
+        maximumNanos.accumulate(nanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getAverageNanos() {
+        long count = this.count.sum();
+        if (count == 0L) return 0L;
+        return totalNanos.sum() / count;
+    }
+
+    public long getMaximumNanos() {
+        return maximumNanos.get();
+    }
+
+    public void reset() {
+        count.reset();
+        totalNanos.reset();
+        maximumNanos.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyStatistics{count=" + getCount() + ", average=" + getAverageNanos() + "ns, maximum=" + getMaximumNanos() + "ns}";
+    }
+}
@@ -16,11 +16,27 @@
 
 package eu.menzani.logger.impl;
 
-import eu.menzani.logger.api.Formatter;
+import eu.menzani.logger.api.AppendingFormatter;
 
-public final class LevelFormatter implements Formatter {
+public final class LevelFormatter implements AppendingFormatter {
     @Override
     public String format(LogEntry entry) {
         return entry.getLevel().getMarker();
     }
+
+    @Override
+    public boolean formatTo(LogEntry entry, StringBuilder builder) {
+        builder.append(entry.getLevel().getMarker());
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof LevelFormatter;
+    }
+
+    @Override
+    public int hashCode() {
+        return LevelFormatter.class.hashCode();
+    }
 }
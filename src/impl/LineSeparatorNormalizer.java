@@ -0,0 +1,51 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import eu.menzani.logger.api.MessageNormalizer;
+
+/**
+ * Replaces {@code %n}, {@code \n} and {@code \r\n} with the system line separator.
+ */
+public final class LineSeparatorNormalizer implements MessageNormalizer {
+    public static final LineSeparatorNormalizer instance = new LineSeparatorNormalizer();
+
+    private static final String lineSeparator = System.lineSeparator();
+
+    private LineSeparatorNormalizer() {
+    }
+
+    @Override
+    public int indexOfNext(CharSequence text, int from) {
+        int length = text.length();
+        for (int i = from; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '\n') return i;
+            if ((c == '\r' || c == '%') && i + 1 < length) {
+                char next = text.charAt(i + 1);
+                if (c == '\r' ? next == '\n' : next == 'n') return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int replace(CharSequence text, int index, StringBuilder builder) {
+        builder.append(lineSeparator);
+        return text.charAt(index) == '\n' ? 1 : 2;
+    }
+}
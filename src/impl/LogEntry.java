@@ -16,25 +16,77 @@
 
 package eu.menzani.logger.impl;
 
-import eu.menzani.logger.ConcurrentLazy;
-import eu.menzani.logger.Lazy;
+import eu.menzani.logger.Nullable;
 import eu.menzani.logger.Objects;
 import eu.menzani.logger.api.LazyMessage;
 import eu.menzani.logger.api.Level;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoField;
 import java.time.temporal.Temporal;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
+/**
+ * Entries taken from a {@link LogEntryPool} are reference counted and go back to the pool
+ * when the last reference is released, after which they are filled with another message.
+ * Filters, formatters and consumers must not retain an entry after they return.
+ * <p/>
+ * The timestamp is normally stored as epoch nanoseconds; {@link #getTimestamp()} materializes it on first use
+ * as a {@link LocalDateTime} in the system default time zone.
+ */
 public final class LogEntry {
-    private final Level level;
-    private final Object message;
-    private final Lazy<Object> lazyMessage;
-    private final AtomicReference<Temporal> timestamp = new AtomicReference<>();
+    private static final long unsetTimestamp = Long.MIN_VALUE;
+
+    private static final AtomicReferenceFieldUpdater<LogEntry, Temporal> timestampUpdater =
+            AtomicReferenceFieldUpdater.newUpdater(LogEntry.class, Temporal.class, "timestamp");
+    private static final AtomicLongFieldUpdater<LogEntry> timestampNanosUpdater =
+            AtomicLongFieldUpdater.newUpdater(LogEntry.class, "timestampNanos");
+    private static final AtomicIntegerFieldUpdater<LogEntry> referenceCountUpdater =
+            AtomicIntegerFieldUpdater.newUpdater(LogEntry.class, "referenceCount");
+
+    private final LogEntryPool pool;
+    private Level level;
+    private Object message;
+    private LazyMessage lazyMessage;
+    private volatile Object evaluatedMessage;
+    private volatile long timestampNanos = unsetTimestamp;
+    private volatile Temporal timestamp;
+    private long enqueueTime;
+    private Object[] sharedFormats; // Keys followed by values, guarded by this
+    private volatile int referenceCount;
 
     public LogEntry(Level level, Object message, LazyMessage lazyMessage) {
+        this(null);
+        fill(level, message, lazyMessage);
+    }
+
+    LogEntry(@Nullable LogEntryPool pool) {
+        this.pool = pool;
+    }
+
+    void fill(Level level, Object message, LazyMessage lazyMessage) {
         this.level = level;
         this.message = message;
-        this.lazyMessage = lazyMessage == null ? null : new ConcurrentLazy<>(lazyMessage::evaluate);
+        this.lazyMessage = lazyMessage;
+        referenceCount = 1;
+    }
+
+    private void clear() {
+        level = null;
+        message = null;
+        lazyMessage = null;
+        evaluatedMessage = null;
+        timestampNanos = unsetTimestamp;
+        timestamp = null;
+        synchronized (this) {
+            sharedFormats = null;
+        }
     }
 
     public Level getLevel() {
@@ -46,25 +98,155 @@ public final class LogEntry {
             return message;
         }
         assert lazyMessage != null;
-        try {
-            return lazyMessage.get();
-        } catch (Exception e) {
-            throw new EvaluationException(e);
+        Object evaluatedMessage = this.evaluatedMessage;
+        if (evaluatedMessage == null) {
+            synchronized (this) {
+                evaluatedMessage = this.evaluatedMessage;
+                if (evaluatedMessage == null) {
+                    try {
+                        evaluatedMessage = lazyMessage.evaluate();
+                    } catch (Exception e) {
+                        throw new EvaluationException(e);
+                    }
+                    this.evaluatedMessage = evaluatedMessage;
+                }
+            }
         }
+        return evaluatedMessage;
     }
 
     public Temporal getTimestamp() {
-        Temporal timestamp = this.timestamp.get();
+        Temporal timestamp = this.timestamp;
         if (timestamp == null) {
-            throw new IllegalStateException("Timestamp was not set.");
+            long timestampNanos = this.timestampNanos;
+            if (timestampNanos == unsetTimestamp) {
+                throw newTimestampNotSetException();
+            }
+            timestamp = LocalDateTime.ofInstant(toInstant(timestampNanos), ZoneId.systemDefault());
+            this.timestamp = timestamp;
         }
         return timestamp;
     }
 
+    /**
+     * @return the timestamp as nanoseconds since the epoch. If it was set as a {@link Temporal},
+     * that must be a {@link LocalDateTime} or support {@link ChronoField#INSTANT_SECONDS}.
+     */
+    public long getTimestampNanos() {
+        long timestampNanos = this.timestampNanos;
+        if (timestampNanos != unsetTimestamp) {
+            return timestampNanos;
+        }
+        Temporal timestamp = this.timestamp;
+        if (timestamp == null) {
+            throw newTimestampNotSetException();
+        }
+        if (timestamp instanceof LocalDateTime) {
+            timestamp = ((LocalDateTime) timestamp).atZone(ZoneId.systemDefault());
+        }
+        return timestamp.getLong(ChronoField.INSTANT_SECONDS) * 1_000_000_000L + timestamp.get(ChronoField.NANO_OF_SECOND);
+    }
+
+    /**
+     * @return whether {@link #getTimestampNanos()} can convert the timestamp, assuming it was set.
+     */
+    boolean hasInstant() {
+        if (timestampNanos != unsetTimestamp) return true;
+        Temporal timestamp = this.timestamp;
+        return timestamp == null || timestamp instanceof LocalDateTime || timestamp.isSupported(ChronoField.INSTANT_SECONDS);
+    }
+
+    boolean hasTimestampNanos() {
+        return timestampNanos != unsetTimestamp;
+    }
+
+    public Instant getInstant() {
+        return toInstant(getTimestampNanos());
+    }
+
+    public void setTimestamp(long timestampNanos) {
+        boolean updated = timestamp == null && timestampNanosUpdater.compareAndSet(this, unsetTimestamp, timestampNanos);
+        if (!updated) {
+            throw newTimestampAlreadySetException();
+        }
+    }
+
     public void setTimestamp(Temporal timestamp) {
-        boolean updated = this.timestamp.compareAndSet(null, Objects.objectNotNull(timestamp, "timestamp"));
+        Objects.objectNotNull(timestamp, "timestamp");
+        boolean updated = timestampNanos == unsetTimestamp && timestampUpdater.compareAndSet(this, null, timestamp);
         if (!updated) {
-            throw new IllegalStateException("Timestamp already set.");
+            throw newTimestampAlreadySetException();
+        }
+    }
+
+    /**
+     * @return what another pipeline formatted for {@code key}, which is a {@link ProducerView} or a formatter.
+     */
+    synchronized Optional<String> getSharedFormat(Object key) {
+        Object[] sharedFormats = this.sharedFormats;
+        if (sharedFormats != null) {
+            for (int i = 0; i < sharedFormats.length && sharedFormats[i] != null; i += 2) {
+                if (sharedFormats[i].equals(key)) {
+                    return Optional.of((String) sharedFormats[i + 1]);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    synchronized void putSharedFormat(Object key, String format) {
+        Object[] sharedFormats = this.sharedFormats;
+        int i = 0;
+        if (sharedFormats == null) {
+            sharedFormats = new Object[8];
+        } else {
+            while (i < sharedFormats.length && sharedFormats[i] != null) {
+                if (sharedFormats[i].equals(key)) return;
+                i += 2;
+            }
+            if (i == sharedFormats.length) {
+                sharedFormats = Arrays.copyOf(sharedFormats, i * 2);
+            }
+        }
+        sharedFormats[i] = key;
+        sharedFormats[i + 1] = format;
+        this.sharedFormats = sharedFormats;
+    }
+
+    long getEnqueueTime() {
+        return enqueueTime;
+    }
+
+    void setEnqueueTime(long enqueueTime) {
+        this.enqueueTime = enqueueTime;
+    }
+
+    private static Instant toInstant(long timestampNanos) {
+        return Instant.ofEpochSecond(0L, timestampNanos);
+    }
+
+    private static RuntimeException newTimestampNotSetException() {
+        return new IllegalStateException("Timestamp was not set.");
+    }
+
+    private static RuntimeException newTimestampAlreadySetException() {
+        return new IllegalStateException("Timestamp already set.");
+    }
+
+    /**
+     * Keeps this entry from going back to its pool until a matching {@link #release()}.
+     * Loggers call this before handing the entry to another thread.
+     */
+    public void retain() {
+        referenceCountUpdater.incrementAndGet(this);
+    }
+
+    public void release() {
+        int referenceCount = referenceCountUpdater.decrementAndGet(this);
+        if (referenceCount == 0 && pool != null) {
+            clear();
+            pool.recycle(this);
         }
+        assert referenceCount >= 0;
     }
 }
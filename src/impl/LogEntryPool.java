@@ -0,0 +1,73 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import eu.menzani.logger.Nullable;
+import eu.menzani.logger.RingBuffer;
+import eu.menzani.logger.api.LazyMessage;
+import eu.menzani.logger.api.Level;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Preallocated {@link LogEntry} objects that loggers fill in place and recycle once every pipeline is done with them,
+ * so that logging does not produce garbage in the steady state.
+ * <p/>
+ * When the pool runs dry, a new entry is allocated and counted as a miss;
+ * it joins the pool when released if there is room.
+ */
+public final class LogEntryPool {
+    private final RingBuffer<LogEntry> entries;
+    private final LongAdder missCount = new LongAdder();
+
+    public LogEntryPool() {
+        this(1 << 13);
+    }
+
+    public LogEntryPool(int capacity) {
+        entries = new RingBuffer<>(capacity);
+        for (int i = 0; i < capacity; i++) {
+            entries.offer(new LogEntry(this));
+        }
+    }
+
+    public LogEntry acquire(Level level, @Nullable Object message, @Nullable LazyMessage lazyMessage) {
+        LogEntry entry = entries.poll();
+        if (entry == null) {
+            missCount.increment();
+            entry = new LogEntry(this);
+        }
+        entry.fill(level, message, lazyMessage);
+        return entry;
+    }
+
+    void recycle(LogEntry entry) {
+        entries.offer(entry);
+    }
+
+    public int getCapacity() {
+        return entries.capacity();
+    }
+
+    public int getAvailable() {
+        return entries.size();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+}
@@ -63,14 +63,28 @@ public final class LoggerGroup extends ToggleableNamedLogger {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public AbstractLogger setEpochClock(EpochClock epochClock) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public AbstractLogger setExceptionHandler(ExceptionHandler exceptionHandler) {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public boolean isEnabled(Level level) {
+        if (isDisabled()) return false;
+        for (Logger logger : loggers) {
+            if (logger.isEnabled(level)) return true;
+        }
+        return false;
+    }
+
     @Override
     public void log(Level level, LazyMessage lazyMessage) {
-        if (isDisabled()) return;
+        if (!isEnabled(level)) return;
         for (Logger logger : loggers) {
             logger.log(level, lazyMessage);
         }
@@ -78,7 +92,7 @@ public final class LoggerGroup extends ToggleableNamedLogger {
 
     @Override
     public void log(Level level, Object message) {
-        if (isDisabled()) return;
+        if (!isEnabled(level)) return;
         for (Logger logger : loggers) {
             logger.log(level, message);
         }
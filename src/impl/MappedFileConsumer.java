@@ -0,0 +1,254 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import eu.menzani.logger.Objects;
+import eu.menzani.logger.api.ByteConsumer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Appends entries to a file by copying them into memory-mapped chunks of it.
+ * <p/>
+ * Each entry reserves its range of the file with an atomic cursor, so that entries are copied concurrently
+ * without locks or system calls; only mapping the next chunk is synchronized.
+ * Copied entries are in the page cache, hence they survive a crash of the JVM, but not of the operating system.
+ * <p/>
+ * The file grows a chunk at a time and is truncated to the end of the last entry by {@link #close()}.
+ * Open consumers are closed on shutdown. If the process died before, the zeros after the last entry
+ * are skipped when the file is opened again.
+ * <p/>
+ * Logging from an interrupted thread does not close the file, and the interrupt status of that thread is preserved.
+ */
+public final class MappedFileConsumer implements ByteConsumer, AutoCloseable {
+    private static final int defaultChunkSize = 1 << 24;
+    private static final Set<MappedFileConsumer> openConsumers = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(MappedFileConsumer::closeOpenConsumers, "MappedFileConsumer shutdown"));
+    }
+
+    private final Path file;
+    private final int chunkSize;
+    private final AtomicLong cursor = new AtomicLong();
+    private final Map<Long, Chunk> chunks = new HashMap<>(); // Guarded by this
+    private volatile Chunk currentChunk;
+    private volatile boolean initialized; // Written while holding this
+    private FileChannel channel; // Guarded by this
+    private long initialCursor; // Guarded by this
+    private boolean closed; // Guarded by this
+
+    public MappedFileConsumer(Path file) {
+        this(file, defaultChunkSize);
+    }
+
+    public MappedFileConsumer(Path file, int chunkSize) {
+        this.file = Objects.objectNotNull(file, "file");
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive.");
+        }
+        this.chunkSize = chunkSize;
+        openConsumers.add(this);
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @return the length of the file once it is closed.
+     */
+    public long getLength() {
+        return cursor.get();
+    }
+
+    @Override
+    public void consume(LogEntry entry, ByteBuffer encodedEntry) throws Exception {
+        if (!initialized) {
+            initialize();
+        }
+        long position = cursor.getAndAdd(encodedEntry.remaining());
+        while (encodedEntry.hasRemaining()) {
+            long index = position / chunkSize;
+            int offset = (int) (position % chunkSize);
+            int length = Math.min(encodedEntry.remaining(), chunkSize - offset);
+            Chunk chunk = getChunk(index);
+            chunk.write(offset, encodedEntry, length);
+            if (chunk.isComplete(length)) {
+                unmapChunk(index);
+            }
+            position += length;
+        }
+    }
+
+    private synchronized void initialize() throws IOException {
+        if (initialized) return;
+        initialCursor = uninterruptibly(TrailingZeros::findEnd);
+        cursor.set(initialCursor);
+        initialized = true;
+    }
+
+    private Chunk getChunk(long index) throws IOException {
+        Chunk chunk = currentChunk;
+        if (chunk != null && chunk.index == index) {
+            return chunk;
+        }
+        return mapChunk(index);
+    }
+
+    private synchronized Chunk mapChunk(long index) throws IOException {
+        Chunk chunk = chunks.get(index);
+        if (chunk == null) {
+            long start = index * chunkSize;
+            int writtenBytes = (int) Math.max(0L, Math.min(chunkSize, initialCursor - start));
+            MappedByteBuffer buffer = uninterruptibly(channel -> channel.map(FileChannel.MapMode.READ_WRITE, start, chunkSize));
+            chunk = new Chunk(index, buffer, writtenBytes);
+            chunks.put(index, chunk);
+        }
+        Chunk currentChunk = this.currentChunk;
+        if (currentChunk == null || currentChunk.index < index) {
+            this.currentChunk = chunk;
+        }
+        return chunk;
+    }
+
+    private synchronized void unmapChunk(long index) {
+        chunks.remove(index);
+    }
+
+    /**
+     * An interrupt closes a {@link FileChannel} for good, so the interrupt status is cleared while using the channel
+     * and restored afterwards. Should an interrupt arrive anyway, the file is opened again.
+     * Must be called while holding this.
+     */
+    private <T> T uninterruptibly(ChannelOperation<T> operation) throws IOException {
+        boolean interrupted = Thread.interrupted();
+        try {
+            while (true) {
+                try {
+                    return operation.apply(openChannel());
+                } catch (ClosedByInterruptException e) {
+                    interrupted = true;
+                    Thread.interrupted();
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private FileChannel openChannel() throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Consumer is closed.");
+        }
+        FileChannel channel = this.channel;
+        if (channel == null || !channel.isOpen()) {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.channel = channel;
+        }
+        return channel;
+    }
+
+    /**
+     * Must not be called while entries are being consumed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        chunks.clear();
+        currentChunk = null;
+        if (initialized) {
+            long length = cursor.get();
+            uninterruptibly(channel -> channel.truncate(length));
+        }
+        closed = true;
+        openConsumers.remove(this);
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    static void closeOpenConsumers() {
+        List<MappedFileConsumer> consumers;
+        synchronized (openConsumers) {
+            consumers = new ArrayList<>(openConsumers);
+        }
+        IOException failure = null;
+        for (MappedFileConsumer consumer : consumers) {
+            try {
+                consumer.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw new UncheckedIOException(failure);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChannelOperation<T> {
+        T apply(FileChannel channel) throws IOException;
+    }
+
+    private static final class Chunk {
+        private final long index;
+        private final MappedByteBuffer buffer;
+        private final AtomicInteger writtenBytes;
+
+        private Chunk(long index, MappedByteBuffer buffer, int writtenBytes) {
+            this.index = index;
+            this.buffer = buffer;
+            this.writtenBytes = new AtomicInteger(writtenBytes);
+        }
+
+        private void write(int offset, ByteBuffer source, int length) {
+            ByteBuffer target = buffer.duplicate();
+            target.position(offset);
+            int limit = source.limit();
+            source.limit(source.position() + length);
+            target.put(source);
+            source.limit(limit);
+        }
+
+        private boolean isComplete(int length) {
+            return writtenBytes.addAndGet(length) == buffer.capacity();
+        }
+    }
+}
@@ -16,18 +16,56 @@
 
 package eu.menzani.logger.impl;
 
-import eu.menzani.logger.api.Formatter;
+import eu.menzani.logger.Objects;
+import eu.menzani.logger.api.AppendingFormatter;
+import eu.menzani.logger.api.MessageNormalizer;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+/**
+ * Normalizes messages with a {@link MessageNormalizer}, by default {@link LineSeparatorNormalizer}.
+ * Messages which need no normalization are returned as they are.
+ */
+public final class MessageFormatter implements AppendingFormatter {
+    private final MessageNormalizer normalizer;
+
+    public MessageFormatter() {
+        this(LineSeparatorNormalizer.instance);
+    }
 
-public final class MessageFormatter implements Formatter {
-    private static final Pattern markers = Pattern.compile("%n|\\r?\\n");
-    private static final String lineSeparator = System.lineSeparator();
+    public MessageFormatter(MessageNormalizer normalizer) {
+        this.normalizer = Objects.objectNotNull(normalizer, "normalizer");
+    }
 
     @Override
     public String format(LogEntry entry) throws EvaluationException {
-        Matcher matcher = markers.matcher(entry.getMessage().toString());
-        return matcher.replaceAll(lineSeparator);
+        Object message = entry.getMessage();
+        CharSequence text = message instanceof CharSequence ? (CharSequence) message : message.toString();
+        if (normalizer.indexOfNext(text, 0) == -1) {
+            return text.toString();
+        }
+        StringBuilder buffer = ProducerView.acquireBuffer();
+        try {
+            normalizer.normalizeTo(text, buffer);
+            return buffer.toString();
+        } finally {
+            ProducerView.releaseBuffer(buffer);
+        }
+    }
+
+    @Override
+    public boolean formatTo(LogEntry entry, StringBuilder builder) throws EvaluationException {
+        Object message = entry.getMessage();
+        CharSequence text = message instanceof CharSequence ? (CharSequence) message : message.toString();
+        normalizer.normalizeTo(text, builder);
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof MessageFormatter && ((MessageFormatter) obj).normalizer.equals(normalizer);
+    }
+
+    @Override
+    public int hashCode() {
+        return normalizer.hashCode();
     }
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A message pattern split once into the literal segments between its markers.
+ * Compiled templates are cached per marker, up to {@link #cacheCapacity} each;
+ * when a cache is full, an arbitrary template is evicted.
+ */
+final class MessageTemplate {
+    static final int cacheCapacity = 1 << 12;
+
+    private static final Map<String, Map<String, MessageTemplate>> caches = new ConcurrentHashMap<>();
+
+    private final String[] literals;
+    private final int length;
+
+    private MessageTemplate(String[] literals, int length) {
+        this.literals = literals;
+        this.length = length;
+    }
+
+    static MessageTemplate of(String pattern, String marker) {
+        Map<String, MessageTemplate> cache = caches.get(marker);
+        if (cache == null) {
+            cache = caches.computeIfAbsent(marker, key -> new ConcurrentHashMap<>());
+        }
+        MessageTemplate template = cache.get(pattern);
+        if (template == null) {
+            template = compile(pattern, marker);
+            if (cache.size() >= cacheCapacity) {
+                Iterator<String> iterator = cache.keySet().iterator();
+                if (iterator.hasNext()) {
+                    iterator.next();
+                    iterator.remove();
+                }
+            }
+            cache.put(pattern, template);
+        }
+        return template;
+    }
+
+    static MessageTemplate compile(String pattern, String marker) {
+        List<String> literals = new ArrayList<>();
+        int start = 0, i;
+        while ((i = pattern.indexOf(marker, start)) != -1) {
+            literals.add(pattern.substring(start, i));
+            start = i + marker.length();
+        }
+        literals.add(pattern.substring(start));
+        return new MessageTemplate(literals.toArray(new String[0]), pattern.length() - (literals.size() - 1) * marker.length());
+    }
+
+    int getSlotCount() {
+        return literals.length - 1;
+    }
+
+    /**
+     * @return the total length of the literal segments.
+     */
+    int getLength() {
+        return length;
+    }
+
+    String getLiteral(int index) {
+        return literals[index];
+    }
+
+    static int getCacheSize(String marker) {
+        Map<String, MessageTemplate> cache = caches.get(marker);
+        if (cache == null) return 0;
+        return cache.size();
+    }
+}
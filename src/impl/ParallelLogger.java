@@ -18,22 +18,38 @@ package eu.menzani.logger.impl;
 
 import eu.menzani.logger.Builder;
 import eu.menzani.logger.ConfigurableThreadFactory;
+import eu.menzani.logger.Nullable;
+import eu.menzani.logger.Objects;
 import eu.menzani.logger.Profiler;
+import eu.menzani.logger.RingBuffer;
+import eu.menzani.logger.SpscRingBuffer;
 import eu.menzani.logger.api.Formatter;
 import eu.menzani.logger.api.*;
 
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-public final class ParallelLogger extends PipelineLogger {
+public final class ParallelLogger extends PipelineLogger implements AutoCloseable {
     private volatile ExecutorService executor;
     private ShutdownThread shutdownThread;
     private volatile Builder<Profiler> profilerBuilder;
-    private final BlockingQueue<LogEntry> queue = new LinkedBlockingQueue<>();
+    private volatile RingBuffer<LogEntry> queue = new RingBuffer<>(1 << 13);
+    private volatile OverflowPolicy overflowPolicy = new BlockingOverflowPolicy();
+    private volatile WaitStrategy waitStrategy = new BlockingWaitStrategy();
+    private volatile CostModel costModel;
+    private volatile int batchSize = 1;
+    private volatile long batchTimeoutNanos;
+    private final LatencyStatistics queueLatency = new LatencyStatistics();
+    private final FormatSharing formatSharing = new FormatSharing();
 
     public ParallelLogger() {
         super();
@@ -44,24 +60,141 @@ public final class ParallelLogger extends PipelineLogger {
     }
 
     int getParallelism() {
+        ExecutorService executor = this.executor;
+        if (executor instanceof ForkJoinPool) {
+            return ((ForkJoinPool) executor).getParallelism();
+        }
         return ((ThreadPoolExecutor) executor).getCorePoolSize();
     }
 
     public synchronized ParallelLogger setParallelism(int parallelism) {
-        Runtime runtime = Runtime.getRuntime();
+        Dispatcher dispatcher = restart();
+        executor = Executors.newFixedThreadPool(parallelism, ConfigurableThreadFactory.daemon("ParallelLogger daemon"));
+        executor.execute(dispatcher);
+        return this;
+    }
+
+    /**
+     * Runs pipelines and their components as fork/join tasks, which help each other complete
+     * instead of blocking pool threads while they wait.
+     * The dispatcher gets a dedicated thread, so {@code parallelism} only accounts for pipeline work.
+     */
+    public synchronized ParallelLogger setForkJoinParallelism(int parallelism) {
+        Dispatcher dispatcher = restart();
+        executor = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("ParallelLogger daemon");
+            return thread;
+        }, null, false);
+        ConfigurableThreadFactory.daemon("ParallelLogger dispatcher").newThread(dispatcher).start();
+        return this;
+    }
+
+    public ParallelLogger setDefaultForkJoinParallelism() {
+        setForkJoinParallelism(Runtime.getRuntime().availableProcessors());
+        return this;
+    }
+
+    private Dispatcher restart() {
+        close();
+        Dispatcher dispatcher = profilerBuilder == null ? new Dispatcher() : new ProfiledDispatcher(profilerBuilder);
+        shutdownThread = new ShutdownThread(dispatcher);
+        Runtime.getRuntime().addShutdownHook(shutdownThread);
+        return dispatcher;
+    }
+
+    /**
+     * Delivers queued entries, then stops the dispatcher and the threads of staged and sharded pipelines.
+     * Setting parallelism again restarts this logger.
+     */
+    @Override
+    public synchronized void close() {
+        if (executor == null) return;
+        shutdownThread.run();
+        boolean wasRegistered = Runtime.getRuntime().removeShutdownHook(shutdownThread);
+        assert wasRegistered;
+        executor = null;
+    }
+
+    public synchronized ParallelLogger setCapacity(int capacity) {
         if (executor != null) {
-            shutdownThread.run();
-            boolean wasRegistered = runtime.removeShutdownHook(shutdownThread);
-            assert wasRegistered;
+            throw new IllegalStateException("Capacity must be set before parallelism.");
         }
-        Consumer consumer = profilerBuilder == null ? new Consumer() : new ProfiledConsumer(profilerBuilder);
-        shutdownThread = new ShutdownThread(consumer);
-        runtime.addShutdownHook(shutdownThread);
-        executor = Executors.newFixedThreadPool(parallelism, ConfigurableThreadFactory.daemon("ParallelLogger daemon"));
-        executor.execute(consumer);
+        queue = new RingBuffer<>(capacity);
+        return this;
+    }
+
+    public int getCapacity() {
+        return queue.capacity();
+    }
+
+    public ParallelLogger setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = Objects.objectNotNull(overflowPolicy, "overflowPolicy");
         return this;
     }
 
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Lets the dispatcher drain up to {@code size} entries at once, waiting at most {@code timeout}
+     * for a batch to fill up, and hand each pipeline the whole batch as a single task.
+     */
+    public ParallelLogger setBatching(int size, long timeout, TimeUnit unit) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be positive.");
+        }
+        if (timeout < 0) {
+            throw new IllegalArgumentException("timeout must not be negative.");
+        }
+        batchTimeoutNanos = Objects.objectNotNull(unit, "unit").toNanos(timeout);
+        batchSize = size;
+        return this;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public ParallelLogger setWaitStrategy(WaitStrategy waitStrategy) {
+        this.waitStrategy = Objects.objectNotNull(waitStrategy, "waitStrategy");
+        return this;
+    }
+
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    /**
+     * When set, pipeline components cheaper than the model's threshold run on the pipeline thread.
+     * Otherwise, every filter, formatter and consumer is handed off to the executor.
+     */
+    public ParallelLogger setCostModel(@Nullable CostModel costModel) {
+        this.costModel = costModel;
+        return this;
+    }
+
+    public Optional<CostModel> getCostModel() {
+        return Optional.ofNullable(costModel);
+    }
+
+    /**
+     * Entries are timestamped on the logging thread; this measures how long they then wait
+     * before the dispatcher hands them to pipelines.
+     */
+    public LatencyStatistics getQueueLatency() {
+        return queueLatency;
+    }
+
+    /**
+     * @return how many times an entry or a fragment was not formatted again
+     * because a pipeline with an equal producer or formatter already did.
+     */
+    public long getDeduplicatedFormatCount() {
+        return formatSharing.getDeduplicatedCount();
+    }
+
     public ParallelLogger setDefaultParallelism(boolean log) {
         int parallelism;
         synchronized (this) {
@@ -100,6 +233,12 @@ public final class ParallelLogger extends PipelineLogger {
         return this;
     }
 
+    @Override
+    public ParallelLogger setEpochClock(EpochClock epochClock) {
+        super.setEpochClock(epochClock);
+        return this;
+    }
+
     @Override
     public ParallelLogger setExceptionHandler(ExceptionHandler exceptionHandler) {
         super.setExceptionHandler(exceptionHandler);
@@ -142,7 +281,19 @@ public final class ParallelLogger extends PipelineLogger {
 
     @Override
     protected void doLog(LogEntry entry) {
-        queue.add(entry);
+        RingBuffer<LogEntry> queue = this.queue;
+        setTimestamp(entry);
+        entry.setEnqueueTime(System.nanoTime());
+        entry.retain();
+        if (!queue.offer(entry)) {
+            try {
+                overflowPolicy.overflow(queue, entry);
+            } catch (InterruptedException e) {
+                entry.release();
+                throwException(new ThreadInterruptedLoggerException(e)).resetInterruptStatus();
+            }
+        }
+        waitStrategy.signal();
     }
 
     private static void joinAll(Stream<Future<?>> futures) throws InterruptedException, ExecutionException {
@@ -152,17 +303,17 @@ public final class ParallelLogger extends PipelineLogger {
     }
 
     private final class ShutdownThread extends Thread {
-        private final Consumer consumer;
+        private final Dispatcher dispatcher;
 
-        private ShutdownThread(Consumer consumer) {
+        private ShutdownThread(Dispatcher dispatcher) {
             super("ParallelLogger shutdown");
-            this.consumer = consumer;
+            this.dispatcher = dispatcher;
         }
 
         @Override
         public void run() {
             try {
-                consumer.awaitTermination();
+                dispatcher.awaitTermination();
             } catch (InterruptedException e) {
                 throwException(new ThreadInterruptedLoggerException(e));
             } finally {
@@ -171,17 +322,30 @@ public final class ParallelLogger extends PipelineLogger {
         }
     }
 
-    private class Consumer implements Runnable {
+    private class Dispatcher implements Runnable {
         private volatile boolean running = true;
         private final CountDownLatch terminationLatch = new CountDownLatch(1);
+        private final Map<Pipeline, StagedPipeline> stagedPipelines = new HashMap<>();
+        private final Map<Pipeline, ShardedPipeline> shardedPipelines = new HashMap<>();
+        private int idleCount;
 
         @Override
         public void run() {
+            List<LogEntry> batch = new ArrayList<>();
             try {
                 while (running || !queue.isEmpty()) {
-                    LogEntry entry = queue.poll(100, TimeUnit.MILLISECONDS);
-                    if (entry == null) continue;
-                    consume(entry);
+                    drain(batch);
+                    if (batch.isEmpty()) {
+                        retireRemovedPipelines(getPipelines());
+                        await(TimeUnit.MILLISECONDS.toNanos(100));
+                        continue;
+                    }
+                    idleCount = 0;
+                    consume(batch);
+                    for (LogEntry entry : batch) {
+                        entry.release();
+                    }
+                    batch.clear();
                 }
             } catch (InterruptedException e) {
                 throwException(new ThreadInterruptedLoggerException(e)).resetInterruptStatus();
@@ -192,98 +356,622 @@ public final class ParallelLogger extends PipelineLogger {
                 }
                 cause.printStackTrace();
             } finally {
+                stopPipelines();
+                flushConsumers();
                 terminationLatch.countDown();
             }
         }
 
-        protected void consume(LogEntry entry) throws InterruptedException, ExecutionException {
-            entry.setTimestamp(getClockTime());
-            joinAll(getPipelines().stream()
-                    .map(pipeline -> new PipelineConsumer(pipeline, entry))
-                    .map(executor::submit));
+        private void retireRemovedPipelines(Set<Pipeline> pipelines) {
+            if (stagedPipelines.isEmpty() && shardedPipelines.isEmpty()) return;
+            Iterator<Map.Entry<Pipeline, StagedPipeline>> stagedIterator = stagedPipelines.entrySet().iterator();
+            while (stagedIterator.hasNext()) {
+                Map.Entry<Pipeline, StagedPipeline> entry = stagedIterator.next();
+                Pipeline pipeline = entry.getKey();
+                if (!pipeline.isStaged() || !pipelines.contains(pipeline)) {
+                    entry.getValue().stop();
+                    stagedIterator.remove();
+                }
+            }
+            Iterator<Map.Entry<Pipeline, ShardedPipeline>> shardedIterator = shardedPipelines.entrySet().iterator();
+            while (shardedIterator.hasNext()) {
+                Map.Entry<Pipeline, ShardedPipeline> entry = shardedIterator.next();
+                Pipeline pipeline = entry.getKey();
+                if (pipeline.getShard().orElse(null) != entry.getValue().shard || !pipelines.contains(pipeline)) {
+                    entry.getValue().stop();
+                    shardedIterator.remove();
+                    waitStrategy.signal();
+                }
+            }
+        }
+
+        private void stopPipelines() {
+            for (StagedPipeline stagedPipeline : stagedPipelines.values()) {
+                stagedPipeline.stop();
+            }
+            for (ShardedPipeline shardedPipeline : shardedPipelines.values()) {
+                shardedPipeline.stop();
+            }
+            waitStrategy.signal();
+            try {
+                for (StagedPipeline stagedPipeline : stagedPipelines.values()) {
+                    stagedPipeline.join();
+                }
+                for (ShardedPipeline shardedPipeline : shardedPipelines.values()) {
+                    shardedPipeline.join();
+                }
+            } catch (InterruptedException e) {
+                throwException(new ThreadInterruptedLoggerException(e)).resetInterruptStatus();
+            }
+        }
+
+        private void flushConsumers() {
+            for (Pipeline pipeline : getPipelines()) {
+                for (Consumer consumer : pipeline.getConsumers()) {
+                    if (consumer instanceof Flushable) {
+                        try {
+                            ((Flushable) consumer).flush();
+                        } catch (IOException e) {
+                            throwException(new PipelineLoggerException(e, PipelineLoggerException.PipelineElement.CONSUMER, consumer));
+                        }
+                    }
+                }
+            }
+        }
+
+        private void drain(List<LogEntry> batch) throws InterruptedException {
+            LogEntry entry = queue.poll();
+            if (entry == null) return;
+            batch.add(entry);
+            int size = batchSize;
+            long deadline = System.nanoTime() + batchTimeoutNanos;
+            while (batch.size() < size) {
+                entry = queue.poll();
+                if (entry != null) {
+                    batch.add(entry);
+                    continue;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) break;
+                await(remaining);
+            }
+        }
+
+        private void await(long nanos) throws InterruptedException {
+            if (running) {
+                waitStrategy.idle(idleCount, queue, nanos);
+                if (idleCount != Integer.MAX_VALUE) idleCount++;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+
+        protected void consume(List<LogEntry> batch) throws InterruptedException, ExecutionException {
+            long now = System.nanoTime();
+            for (LogEntry entry : batch) {
+                queueLatency.record(now - entry.getEnqueueTime());
+            }
+            Set<Pipeline> allPipelines = getPipelines();
+            retireRemovedPipelines(allPipelines);
+            FormatSharing.Snapshot sharing = formatSharing.snapshot(allPipelines);
+            List<Pipeline> pipelines = new ArrayList<>();
+            for (Pipeline pipeline : allPipelines) {
+                if (pipeline.isStaged()) {
+                    StagedPipeline stagedPipeline = stagedPipelines.computeIfAbsent(pipeline, StagedPipeline::new);
+                    for (LogEntry entry : batch) {
+                        stagedPipeline.put(entry);
+                    }
+                } else if (pipeline.getShard().isPresent()) {
+                    ShardedPipeline shardedPipeline = shardedPipelines.computeIfAbsent(pipeline,
+                            key -> new ShardedPipeline(key, key.getShard().get()));
+                    for (LogEntry entry : batch) {
+                        shardedPipeline.put(entry);
+                    }
+                    waitStrategy.signal();
+                } else {
+                    pipelines.add(pipeline);
+                }
+            }
+            if (pipelines.isEmpty()) return;
+
+            ExecutorService executor = ParallelLogger.this.executor;
+            if (executor instanceof ForkJoinPool) {
+                List<ForkJoinTask<Void>> tasks = pipelines.stream()
+                        .map(pipeline -> ForkJoinTask.adapt(new PipelineConsumer(pipeline, batch, sharing)))
+                        .collect(Collectors.toList());
+                try {
+                    ((ForkJoinPool) executor).invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+                } catch (RuntimeException e) {
+                    throw new ExecutionException(e);
+                }
+            } else {
+                joinAll(pipelines.stream()
+                        .map(pipeline -> new PipelineConsumer(pipeline, batch, sharing))
+                        .map(executor::submit));
+            }
         }
 
         private void awaitTermination() throws InterruptedException {
             running = false;
+            waitStrategy.signal();
             terminationLatch.await();
         }
     }
 
-    private final class ProfiledConsumer extends Consumer {
+    private final class ProfiledDispatcher extends Dispatcher {
         private final Builder<Profiler> profilerBuilder;
 
-        private ProfiledConsumer(Builder<Profiler> profilerBuilder) {
+        private ProfiledDispatcher(Builder<Profiler> profilerBuilder) {
             this.profilerBuilder = profilerBuilder;
         }
 
         @Override
-        protected void consume(LogEntry entry) throws InterruptedException, ExecutionException {
+        protected void consume(List<LogEntry> batch) throws InterruptedException, ExecutionException {
             try (Profiler ignored = profilerBuilder.build()) {
-                super.consume(entry);
+                super.consume(batch);
             }
         }
     }
 
     private final class PipelineConsumer implements Callable<Void> {
         private final Pipeline pipeline;
-        private final LogEntry entry;
+        private final List<LogEntry> batch;
+        private final FormatSharing.Snapshot sharing;
 
-        private PipelineConsumer(Pipeline pipeline, LogEntry entry) {
+        private PipelineConsumer(Pipeline pipeline, List<LogEntry> batch, FormatSharing.Snapshot sharing) {
             this.pipeline = pipeline;
-            this.entry = entry;
+            this.batch = batch;
+            this.sharing = sharing;
         }
 
         @Override
         public Void call() throws InterruptedException, ExecutionException {
-            run();
+            for (LogEntry entry : batch) {
+                run(entry);
+            }
             return null;
         }
 
-        private void run() throws InterruptedException, ExecutionException {
-            boolean failure = joinAny(pipeline.getFilters(), filter -> () -> filter.test(entry, ParallelLogger.this), Boolean::booleanValue);
+        private void run(LogEntry entry) throws InterruptedException, ExecutionException {
+            boolean failure = joinAny(entry, pipeline.getFilters(), filter -> () -> filter.test(entry, ParallelLogger.this), Boolean::booleanValue);
             if (failure) return;
 
             ProducerView producer = pipeline.getProducer();
-            Map<Formatter, String> formattedFragments = new HashMap<>();
-            failure = joinAny(producer.getFormatters(),
-                    formatter -> () -> new AbstractMap.SimpleImmutableEntry<>(
-                            formatter, formatter.apply(entry, ParallelLogger.this)),
-                    entry -> {
-                        Optional<String> formattedFragment = entry.getValue();
-                        if (formattedFragment.isEmpty()) return true;
-                        formattedFragments.put(entry.getKey(), formattedFragment.get());
-                        return false;
-                    });
-            if (failure) return;
-            String formattedEntry = producer.produce(formattedFragments);
+            Optional<String> sharedEntry = sharing.isShared(producer) ? formatSharing.lookup(producer, entry) : Optional.empty();
+            String formattedEntry;
+            if (sharedEntry.isPresent()) {
+                formattedEntry = sharedEntry.get();
+            } else {
+                Map<Formatter, String> formattedFragments = new HashMap<>();
+                failure = joinAny(entry, producer.getFormatters(),
+                        formatter -> () -> new AbstractMap.SimpleImmutableEntry<>(formatter, sharing.isShared(formatter) ?
+                                formatSharing.format(formatter, entry, ParallelLogger.this) : formatter.apply(entry, ParallelLogger.this)),
+                        result -> {
+                            Optional<String> formattedFragment = result.getValue();
+                            if (formattedFragment.isEmpty()) return true;
+                            formattedFragments.put(result.getKey(), formattedFragment.get());
+                            return false;
+                        });
+                if (failure) return;
+                formattedEntry = producer.produce(formattedFragments);
+                if (sharing.isShared(producer)) {
+                    entry.putSharedFormat(producer, formattedEntry);
+                }
+            }
 
-            joinAll(pipeline.getConsumers().stream()
-                    .map(consumer -> (Runnable) () -> consumer.accept(entry, formattedEntry, ParallelLogger.this))
-                    .map(executor::submit));
+            EntryEncoder encoder = producer.getEncoder();
+            ByteBuffer encodedEntry = hasByteConsumer(pipeline) ? encoder.encode(formattedEntry) : null;
+            joinAny(entry, pipeline.getConsumers(), consumer -> () -> {
+                if (consumer instanceof ByteConsumer) {
+                    ((ByteConsumer) consumer).accept(entry, encodedEntry.duplicate(), ParallelLogger.this);
+                } else {
+                    consumer.accept(entry, formattedEntry, ParallelLogger.this);
+                }
+                return null;
+            }, value -> false);
+            // Not released if a consumer failed, since the others may still be reading it
+            if (encodedEntry != null) {
+                encoder.release(encodedEntry);
+            }
         }
 
-        private <T, V> boolean joinAny(Set<T> components, Function<T, Callable<V>> callableFactory,
+        private <T, V> boolean joinAny(LogEntry entry, Set<T> components, Function<T, Callable<V>> callableFactory,
                                        Predicate<V> failureTester) throws InterruptedException, ExecutionException {
-            CompletionService<V> completion = new ExecutorCompletionService<>(executor);
-            Future<?>[] futures = new Future<?>[components.size()];
-            int i = 0;
+            CostModel costModel = ParallelLogger.this.costModel;
+            int size = components.size();
+            boolean[] forked = new boolean[size];
+            int i = 0, forkedCount = 0;
             for (T component : components) {
-                assert component instanceof Filter || component instanceof Formatter;
-                Future<V> future = completion.submit(callableFactory.apply(component));
-                futures[i++] = future;
+                if (costModel == null || !costModel.isInlined(component)) {
+                    forked[i] = true;
+                    forkedCount++;
+                }
+                i++;
+            }
+            assert i == size;
+            if (forkedCount != size) {
+                i = 0;
+                for (T component : components) {
+                    if (forked[i++]) continue;
+                    V value;
+                    try {
+                        value = costModel.call(component, callableFactory.apply(component));
+                    } catch (Exception e) {
+                        throw new ExecutionException(e);
+                    }
+                    if (failureTester.test(value)) return true;
+                }
+            }
+            if (forkedCount == 0) return false;
+
+            ExecutorService executor = ParallelLogger.this.executor;
+            if (executor instanceof ForkJoinPool) {
+                return joinAny(entry, (ForkJoinPool) executor, components, callableFactory, failureTester, forked, forkedCount);
             }
-            assert i == futures.length;
+            CompletionService<V> completion = new ExecutorCompletionService<>(executor);
+            Future<?>[] futures = new Future<?>[forkedCount];
+            EntryTask<?>[] tasks = new EntryTask<?>[forkedCount];
+            int j = 0;
+            i = 0;
             try {
-                for (int j = 0; j < i; j++) {
+                for (T component : components) {
+                    if (!forked[i++]) continue;
+                    Callable<V> callable = callableFactory.apply(component);
+                    if (costModel != null) {
+                        callable = costModel.measured(component, callable);
+                    }
+                    EntryTask<V> task = new EntryTask<>(entry, callable);
+                    tasks[j] = task;
+                    futures[j++] = completion.submit(task);
+                }
+                assert j == forkedCount;
+                for (j = 0; j < forkedCount; j++) {
                     V value = completion.take().get();
                     if (failureTester.test(value)) return true;
                 }
             } finally {
-                for (Future<?> future : futures) {
-                    future.cancel(true);
+                for (j = 0; j < forkedCount && tasks[j] != null; j++) {
+                    if (futures[j] != null) {
+                        futures[j].cancel(true);
+                    }
+                    tasks[j].releaseIfNotStarted();
+                }
+            }
+            return false;
+        }
+
+        private <T, V> boolean joinAny(LogEntry entry, ForkJoinPool pool, Set<T> components, Function<T, Callable<V>> callableFactory,
+                                       Predicate<V> failureTester, boolean[] forked, int forkedCount) throws ExecutionException {
+            CostModel costModel = ParallelLogger.this.costModel;
+            List<ForkJoinTask<V>> tasks = new ArrayList<>(forkedCount);
+            List<EntryTask<V>> entryTasks = new ArrayList<>(forkedCount);
+            int i = 0;
+            try {
+                for (T component : components) {
+                    if (!forked[i++]) continue;
+                    Callable<V> callable = callableFactory.apply(component);
+                    if (costModel != null) {
+                        callable = costModel.measured(component, callable);
+                    }
+                    EntryTask<V> entryTask = new EntryTask<>(entry, callable);
+                    entryTasks.add(entryTask);
+                    ForkJoinTask<V> task = ForkJoinTask.adapt(entryTask);
+                    tasks.add(ForkJoinTask.getPool() == pool ? task.fork() : pool.submit(task));
+                }
+                for (ForkJoinTask<V> task : tasks) {
+                    if (failureTester.test(task.join())) return true;
+                }
+            } catch (RuntimeException e) {
+                throw new ExecutionException(e);
+            } finally {
+                for (i = 0; i < entryTasks.size(); i++) {
+                    if (i < tasks.size()) {
+                        tasks.get(i).cancel(true);
+                    }
+                    entryTasks.get(i).releaseIfNotStarted();
                 }
             }
             return false;
         }
     }
+
+    /**
+     * Retains {@code entry} for a forked pipeline component, so that it does not go back to its pool
+     * while a task that {@code joinAny} gave up on is still reading it.
+     * The reference is released by the task itself or, if it was cancelled before starting, by {@link #releaseIfNotStarted()}.
+     */
+    private static final class EntryTask<V> implements Callable<V> {
+        private final LogEntry entry;
+        private final Callable<V> callable;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private EntryTask(LogEntry entry, Callable<V> callable) {
+            this.entry = entry;
+            this.callable = callable;
+            entry.retain();
+        }
+
+        @Override
+        public V call() throws Exception {
+            if (!claimed.compareAndSet(false, true)) return null;
+            try {
+                return callable.call();
+            } finally {
+                entry.release();
+            }
+        }
+
+        private void releaseIfNotStarted() {
+            if (claimed.compareAndSet(false, true)) {
+                entry.release();
+            }
+        }
+    }
+
+    /**
+     * Reports a failure on a staged or sharded pipeline thread, which keeps running afterwards.
+     */
+    private void handleFailure(RuntimeException e) {
+        if (e instanceof LoggerException) return; // Already given to the exception handler, which threw it
+        try {
+            throwException(new PipelineThreadException(e));
+        } catch (LoggerException ignored) {
+        }
+    }
+
+    private boolean isRejected(Pipeline pipeline, LogEntry entry) {
+        for (Filter filter : pipeline.getFilters()) {
+            if (filter.test(entry, this)) return true;
+        }
+        return false;
+    }
+
+    private Optional<String> format(Pipeline pipeline, LogEntry entry) {
+        StringBuilder buffer = ProducerView.acquireBuffer();
+        try {
+            ProducerView producer = pipeline.getProducer();
+            FormatSharing.Snapshot sharing = formatSharing.current();
+            if (sharing.isShared(producer)) {
+                return formatSharing.produce(producer, entry, buffer, this, sharing);
+            }
+            if (producer.produceTo(entry, buffer, this, formatSharing, sharing)) {
+                return Optional.of(buffer.toString());
+            }
+            return Optional.empty();
+        } finally {
+            ProducerView.releaseBuffer(buffer);
+        }
+    }
+
+    private void deliver(Pipeline pipeline, LogEntry entry, String formattedEntry) {
+        EntryEncoder encoder = pipeline.getProducer().getEncoder();
+        ByteBuffer encodedEntry = null;
+        for (Consumer consumer : pipeline.getConsumers()) {
+            if (consumer instanceof ByteConsumer) {
+                if (encodedEntry == null) {
+                    encodedEntry = encoder.encode(formattedEntry);
+                }
+                ((ByteConsumer) consumer).accept(entry, encodedEntry.rewind(), this);
+            } else {
+                consumer.accept(entry, formattedEntry, this);
+            }
+        }
+        if (encodedEntry != null) {
+            encoder.release(encodedEntry);
+        }
+    }
+
+    private static boolean hasByteConsumer(Pipeline pipeline) {
+        for (Consumer consumer : pipeline.getConsumers()) {
+            if (consumer instanceof ByteConsumer) return true;
+        }
+        return false;
+    }
+
+    private final class ShardedPipeline {
+        private final Pipeline pipeline;
+        private final Shard shard;
+        private final RingBuffer<LogEntry> queue;
+        private final Thread[] workers;
+        private volatile boolean running = true;
+
+        private ShardedPipeline(Pipeline pipeline, Shard shard) {
+            this.pipeline = pipeline;
+            this.shard = shard;
+            queue = shard.newQueue();
+            ThreadFactory threadFactory = ConfigurableThreadFactory.daemon("ParallelLogger shard worker");
+            workers = new Thread[shard.getWorkers()];
+            for (int i = 0; i < workers.length; i++) {
+                workers[i] = threadFactory.newThread(this::run);
+                workers[i].start();
+            }
+        }
+
+        private void put(LogEntry entry) throws InterruptedException {
+            entry.retain();
+            if (!queue.offer(entry)) {
+                shard.getOverflowPolicy().overflow(queue, entry);
+            }
+            shard.enqueued(queue);
+        }
+
+        private void run() {
+            WaitStrategy waitStrategy = ParallelLogger.this.waitStrategy;
+            try {
+                int idleCount = 0;
+                while (running || !queue.isEmpty()) {
+                    LogEntry entry = queue.poll();
+                    if (entry == null) {
+                        if (running) {
+                            waitStrategy.idle(idleCount, queue, TimeUnit.MILLISECONDS.toNanos(100));
+                            if (idleCount != Integer.MAX_VALUE) idleCount++;
+                        }
+                        continue;
+                    }
+                    idleCount = 0;
+                    try {
+                        if (!isRejected(pipeline, entry)) {
+                            format(pipeline, entry).ifPresent(formattedEntry -> deliver(pipeline, entry, formattedEntry));
+                        }
+                    } catch (RuntimeException e) {
+                        handleFailure(e);
+                    } finally {
+                        entry.release();
+                        shard.processed();
+                    }
+                }
+            } catch (InterruptedException e) {
+                throwException(new ThreadInterruptedLoggerException(e)).resetInterruptStatus();
+            }
+        }
+
+        private void stop() {
+            running = false;
+        }
+
+        private void join() throws InterruptedException {
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        }
+    }
+
+    private final class StagedPipeline {
+        private final Stage<LogEntry> filterStage;
+        private final Stage<LogEntry> producerStage;
+        private final Stage<FormattedEntry> consumerStage;
+
+        private StagedPipeline(Pipeline pipeline) {
+            consumerStage = new Stage<>("consumer", null, formattedEntry -> {
+                try {
+                    deliver(pipeline, formattedEntry.entry, formattedEntry.formattedEntry);
+                } finally {
+                    formattedEntry.entry.release();
+                }
+            }, ParallelLogger.this::handleFailure);
+            producerStage = new Stage<>("producer", consumerStage, entry -> {
+                Optional<String> formattedEntry = Optional.empty();
+                try {
+                    formattedEntry = format(pipeline, entry);
+                } finally {
+                    if (formattedEntry.isPresent()) {
+                        consumerStage.put(new FormattedEntry(entry, formattedEntry.get()));
+                    } else {
+                        entry.release();
+                    }
+                }
+            }, ParallelLogger.this::handleFailure);
+            filterStage = new Stage<>("filter", producerStage, entry -> {
+                boolean rejected = true;
+                try {
+                    rejected = isRejected(pipeline, entry);
+                } finally {
+                    if (rejected) {
+                        entry.release();
+                    } else {
+                        producerStage.put(entry);
+                    }
+                }
+            }, ParallelLogger.this::handleFailure);
+        }
+
+        private void put(LogEntry entry) {
+            entry.retain();
+            filterStage.put(entry);
+        }
+
+        private void stop() {
+            filterStage.stop();
+        }
+
+        private void join() throws InterruptedException {
+            consumerStage.thread.join();
+        }
+    }
+
+    private static final class FormattedEntry {
+        private final LogEntry entry;
+        private final String formattedEntry;
+
+        private FormattedEntry(LogEntry entry, String formattedEntry) {
+            this.entry = entry;
+            this.formattedEntry = formattedEntry;
+        }
+    }
+
+    private static final class Stage<T> implements Runnable {
+        private static final int capacity = 1 << 10;
+        private static final int spins = 100;
+        private static final long parkNanos = TimeUnit.MILLISECONDS.toNanos(100);
+        private static final long fullParkNanos = TimeUnit.MICROSECONDS.toNanos(10);
+
+        private final SpscRingBuffer<T> input = new SpscRingBuffer<>(capacity);
+        private final Stage<?> next;
+        private final java.util.function.Consumer<T> action;
+        private final java.util.function.Consumer<RuntimeException> failureHandler;
+        private final Thread thread;
+        private volatile boolean running = true;
+        private volatile boolean waiting;
+
+        private Stage(String name, @Nullable Stage<?> next, java.util.function.Consumer<T> action,
+                      java.util.function.Consumer<RuntimeException> failureHandler) {
+            this.next = next;
+            this.action = action;
+            this.failureHandler = failureHandler;
+            thread = ConfigurableThreadFactory.daemon("ParallelLogger " + name + " stage").newThread(this);
+            thread.start();
+        }
+
+        private void put(T element) {
+            while (!input.offer(element)) {
+                LockSupport.parkNanos(this, fullParkNanos);
+            }
+            if (waiting) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        private void stop() {
+            running = false;
+            LockSupport.unpark(thread);
+        }
+
+        @Override
+        public void run() {
+            try {
+                int idleCount = 0;
+                while (running || !input.isEmpty()) {
+                    T element = input.poll();
+                    if (element == null) {
+                        idle(idleCount);
+                        if (idleCount < spins) idleCount++;
+                        continue;
+                    }
+                    idleCount = 0;
+                    try {
+                        action.accept(element);
+                    } catch (RuntimeException e) {
+                        failureHandler.accept(e);
+                    }
+                }
+            } finally {
+                if (next != null) {
+                    next.stop();
+                }
+            }
+        }
+
+        private void idle(int idleCount) {
+            if (idleCount < spins) {
+                Thread.onSpinWait();
+                return;
+            }
+            waiting = true;
+            if (running && input.isEmpty()) {
+                LockSupport.parkNanos(this, parkNanos);
+            }
+            waiting = false;
+        }
+    }
 }
@@ -20,18 +20,59 @@ import eu.menzani.logger.Nullable;
 import eu.menzani.logger.Objects;
 import eu.menzani.logger.api.LazyMessage;
 
+/**
+ * Replaces each occurrence of {@code marker} with the next argument.
+ * Patterns are parsed once into a cached {@link MessageTemplate}.
+ * A single primitive argument is stored unboxed and appended without intermediate strings.
+ */
 public final class ParameterizedMessage implements LazyMessage {
+    private static final Object[] noArguments = new Object[0];
+
     private volatile String marker = "{}";
     private final String parameterizedString;
     private final Object[] arguments;
+    private final PrimitiveType primitiveType;
+    private final long primitive;
 
     public ParameterizedMessage(String parameterizedString, @Nullable Object... arguments) {
         this.parameterizedString = Objects.objectNotNull(parameterizedString, "parameterizedString");
         this.arguments = Objects.objectNotNull(arguments, "arguments");
+        primitiveType = null;
+        primitive = 0L;
+    }
+
+    public ParameterizedMessage(String parameterizedString, int argument) {
+        this(parameterizedString, PrimitiveType.LONG, argument);
+    }
+
+    public ParameterizedMessage(String parameterizedString, long argument) {
+        this(parameterizedString, PrimitiveType.LONG, argument);
+    }
+
+    public ParameterizedMessage(String parameterizedString, double argument) {
+        this(parameterizedString, PrimitiveType.DOUBLE, Double.doubleToRawLongBits(argument));
+    }
+
+    public ParameterizedMessage(String parameterizedString, boolean argument) {
+        this(parameterizedString, PrimitiveType.BOOLEAN, argument ? 1L : 0L);
+    }
+
+    public ParameterizedMessage(String parameterizedString, char argument) {
+        this(parameterizedString, PrimitiveType.CHAR, argument);
+    }
+
+    private ParameterizedMessage(String parameterizedString, PrimitiveType primitiveType, long primitive) {
+        this.parameterizedString = Objects.objectNotNull(parameterizedString, "parameterizedString");
+        arguments = noArguments;
+        this.primitiveType = primitiveType;
+        this.primitive = primitive;
     }
 
     public ParameterizedMessage marker(String marker) {
-        this.marker = Objects.objectNotNull(marker, "marker");
+        if (Objects.objectNotNull(marker, "marker").isEmpty()) {
+            throw new IllegalArgumentException("marker must not be empty.");
+        }
+        this.marker = marker;
         return this;
     }
 
@@ -54,30 +95,65 @@ public final class ParameterizedMessage implements LazyMessage {
 
     @Override
     public Object evaluate() throws Exception {
-        StringBuilder builder = new StringBuilder(parameterizedString);
-        int i = 0, j = 0;
-        while ((i = builder.indexOf(marker, i)) != -1) {
-            if (j == arguments.length) {
+        MessageTemplate template = MessageTemplate.of(parameterizedString, marker);
+        int argumentCount = primitiveType == null ? arguments.length : 1;
+        int slotCount = template.getSlotCount();
+        StringBuilder builder = new StringBuilder(template.getLength() + 16 * argumentCount);
+        for (int j = 0; j < slotCount; j++) {
+            if (j == argumentCount) {
                 throw newProductionException("too few arguments");
             }
-            Object argument = arguments[j++];
-            if (argument == null) {
-                throw newProductionException("placeholder argument not set");
+            builder.append(template.getLiteral(j));
+            if (primitiveType == null) {
+                appendArgument(builder, arguments[j]);
+            } else {
+                appendPrimitive(builder);
             }
-            if (argument instanceof LazyMessage) {
-                argument = ((LazyMessage) argument).evaluate();
-            }
-            String replacement = argument.toString();
-            builder.replace(i, i + 2, replacement);
-            i += replacement.length();
         }
-        if (j != arguments.length) {
+        if (slotCount != argumentCount) {
             throw newProductionException("too many arguments");
         }
+        builder.append(template.getLiteral(slotCount));
         return builder;
     }
 
+    private static void appendArgument(StringBuilder builder, Object argument) throws Exception {
+        if (argument == null) {
+            throw newProductionException("placeholder argument not set");
+        }
+        if (argument instanceof LazyMessage) {
+            argument = ((LazyMessage) argument).evaluate();
+        }
+        builder.append(argument.toString());
+    }
+
+    private void appendPrimitive(StringBuilder builder) {
+        switch (primitiveType) {
+            case LONG:
+                builder.append(primitive);
+                break;
+            case DOUBLE:
+                builder.append(Double.longBitsToDouble(primitive));
+                break;
+            case BOOLEAN:
+                builder.append(primitive != 0L);
+                break;
+            case CHAR:
+                builder.append((char) primitive);
+                break;
+            default:
+                throw new AssertionError();
+        }
+    }
+
     private static RuntimeException newProductionException(String cause) {
         return new IllegalStateException("Could not produce parameterized message: " + cause + '.');
     }
+
+    private enum PrimitiveType {
+        LONG,
+        DOUBLE,
+        BOOLEAN,
+        CHAR
+    }
 }
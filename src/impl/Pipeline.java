@@ -17,6 +17,8 @@
 package eu.menzani.logger.impl;
 
 import eu.menzani.logger.Cloneable;
+import eu.menzani.logger.Nullable;
+import eu.menzani.logger.Objects;
 import eu.menzani.logger.api.*;
 
 import java.util.Collections;
@@ -29,6 +31,10 @@ public final class Pipeline implements Named, Toggleable, Cloneable<Pipeline> {
     private final Set<Filter> filters = new CopyOnWriteArraySet<>();
     private volatile ProducerView producer = new Producer().append(new MessageFormatter()).asView();
     private final Set<Consumer> consumers = new CopyOnWriteArraySet<>();
+    private volatile boolean staged;
+    private volatile Shard shard;
+    private volatile int maximumVerbosity = Integer.MAX_VALUE;
+    private final Set<Runnable> verbosityListeners = new CopyOnWriteArraySet<>();
 
     public Pipeline() {
         this(null);
@@ -58,6 +64,7 @@ public final class Pipeline implements Named, Toggleable, Cloneable<Pipeline> {
     public Pipeline setFilters(Filter... filters) {
         this.filters.clear();
         Collections.addAll(this.filters, filters);
+        updateMaximumVerbosity();
         return this;
     }
 
@@ -74,6 +81,7 @@ public final class Pipeline implements Named, Toggleable, Cloneable<Pipeline> {
 
     public Pipeline addFilter(Filter filter) {
         filters.add(filter);
+        updateMaximumVerbosity();
         return this;
     }
 
@@ -82,6 +90,40 @@ public final class Pipeline implements Named, Toggleable, Cloneable<Pipeline> {
         return this;
     }
 
+    /**
+     * In staged mode, {@link ParallelLogger} runs filters, the producer and consumers of this pipeline
+     * on three dedicated threads, so that consecutive entries go through different stages at the same time.
+     * Other loggers ignore this setting.
+     */
+    public Pipeline setStaged(boolean staged) {
+        if (staged && shard != null) {
+            throw new IllegalStateException("Pipeline cannot be both staged and sharded.");
+        }
+        this.staged = staged;
+        return this;
+    }
+
+    public boolean isStaged() {
+        return staged;
+    }
+
+    /**
+     * In sharded mode, {@link ParallelLogger} hands entries of this pipeline to the queue and workers of {@code shard}
+     * instead of running it together with the other pipelines.
+     * Other loggers ignore this setting.
+     */
+    public Pipeline setShard(@Nullable Shard shard) {
+        if (shard != null && staged) {
+            throw new IllegalStateException("Pipeline cannot be both staged and sharded.");
+        }
+        this.shard = shard;
+        return this;
+    }
+
+    public Optional<Shard> getShard() {
+        return Optional.ofNullable(shard);
+    }
+
     public Pipeline setVerbosity(Level level) {
         addFilter(new LevelFilter(level));
         return this;
@@ -107,6 +149,44 @@ public final class Pipeline implements Named, Toggleable, Cloneable<Pipeline> {
                 .orElse(true);
     }
 
+    /**
+     * @return the verbosity of the most verbose level that can get past the filters of this pipeline:
+     * {@link Integer#MAX_VALUE} if it has no level filter, {@link Integer#MIN_VALUE} if it is disabled.
+     */
+    public int getMaximumVerbosity() {
+        return maximumVerbosity;
+    }
+
+    /**
+     * {@code listener} is run after filters change, so that loggers can cache {@link #getMaximumVerbosity()}.
+     */
+    public Pipeline addVerbosityListener(Runnable listener) {
+        verbosityListeners.add(Objects.objectNotNull(listener, "listener"));
+        return this;
+    }
+
+    public Pipeline removeVerbosityListener(Runnable listener) {
+        verbosityListeners.remove(listener);
+        return this;
+    }
+
+    private synchronized void updateMaximumVerbosity() {
+        int maximumVerbosity = Integer.MAX_VALUE;
+        for (Filter filter : filters) {
+            if (filter instanceof RejectAllFilter) {
+                maximumVerbosity = Integer.MIN_VALUE;
+                break;
+            }
+            if (filter instanceof LevelFilter) {
+                maximumVerbosity = Math.min(maximumVerbosity, ((LevelFilter) filter).getLevel().getVerbosity());
+            }
+        }
+        this.maximumVerbosity = maximumVerbosity;
+        for (Runnable listener : verbosityListeners) {
+            listener.run();
+        }
+    }
+
     @Override
     public void disable() {
         addFilter(new RejectAllFilter());
@@ -123,6 +203,10 @@ public final class Pipeline implements Named, Toggleable, Cloneable<Pipeline> {
         Pipeline clone = new Pipeline(getName().orElse(null));
         filters.forEach(clone::addFilter);
         clone.producer = producer;
+        clone.staged = staged;
+        if (shard != null) {
+            clone.shard = shard.clone();
+        }
         consumers.forEach(clone::addConsumer);
         return clone;
     }
@@ -16,6 +16,7 @@
 
 package eu.menzani.logger.impl;
 
+import eu.menzani.logger.Objects;
 import eu.menzani.logger.api.Formatter;
 
 import java.util.ArrayList;
@@ -26,6 +27,7 @@ import java.util.Set;
 public final class Producer {
     private final List<Object> fragments = new ArrayList<>();
     private final Set<Formatter> formatters = new HashSet<>();
+    private EntryEncoder encoder = EntryEncoder.defaultEncoder;
 
     public Producer append(Formatter formatter) {
         fragments.add(formatter);
@@ -43,7 +45,15 @@ public final class Producer {
         return this;
     }
 
+    /**
+     * Sets how entries are encoded for {@link eu.menzani.logger.api.ByteConsumer}s.
+     */
+    public Producer setEncoder(EntryEncoder encoder) {
+        this.encoder = Objects.objectNotNull(encoder, "encoder");
+        return this;
+    }
+
     ProducerView asView() {
-        return new ProducerView(fragments, formatters);
+        return new ProducerView(fragments, formatters, encoder);
     }
 }
@@ -16,26 +16,46 @@
 
 package eu.menzani.logger.impl;
 
+import eu.menzani.logger.Nullable;
+import eu.menzani.logger.api.AbstractLogger;
+import eu.menzani.logger.api.AppendingFormatter;
 import eu.menzani.logger.api.Formatter;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 public final class ProducerView {
-    private final List<Object> fragments;
+    private static final int maximumBufferCapacity = 1 << 16;
+    private static final ThreadLocal<StringBuilder> buffers = new ThreadLocal<>();
+
+    private final Object[] fragments;
     private final Set<Formatter> formatters;
+    private final EntryEncoder encoder;
+    private final int hashCode;
 
-    ProducerView(List<Object> fragments, Set<Formatter> formatters) {
-        this.fragments = new ArrayList<>(fragments);
+    ProducerView(List<Object> fragments, Set<Formatter> formatters, EntryEncoder encoder) {
+        this.fragments = fragments.toArray();
+        for (int i = 0; i < this.fragments.length; i++) {
+            if (this.fragments[i] instanceof CharSequence) {
+                this.fragments[i] = this.fragments[i].toString();
+            }
+        }
         this.formatters = Set.copyOf(formatters);
+        this.encoder = encoder;
+        hashCode = Arrays.hashCode(this.fragments);
     }
 
     public Set<Formatter> getFormatters() {
         return formatters;
     }
 
+    public EntryEncoder getEncoder() {
+        return encoder;
+    }
+
     public String produce(Map<Formatter, String> formattedFragments) {
         StringBuilder builder = new StringBuilder();
         for (Object fragment : fragments) {
@@ -52,8 +72,81 @@ public final class ProducerView {
         return builder.toString();
     }
 
+    /**
+     * Renders {@code entry} in one pass, letting {@link AppendingFormatter}s write into {@code builder} directly.
+     *
+     * @return {@code false} if a formatter failed or dropped the entry, in which case {@code builder} holds a partial entry.
+     */
+    public boolean produceTo(LogEntry entry, StringBuilder builder, AbstractLogger logger) {
+        return produceTo(entry, builder, logger, null, null);
+    }
+
+    /**
+     * Formatters shared with other pipelines according to {@code sharing} format each entry only once.
+     */
+    boolean produceTo(LogEntry entry, StringBuilder builder, AbstractLogger logger,
+                      @Nullable FormatSharing formatSharing, FormatSharing.@Nullable Snapshot sharing) {
+        for (Object fragment : fragments) {
+            if (sharing != null && fragment instanceof Formatter && sharing.isShared(fragment)) {
+                Optional<String> formattedFragment = formatSharing.format((Formatter) fragment, entry, logger);
+                if (formattedFragment.isEmpty()) return false;
+                builder.append(formattedFragment.get());
+            } else if (fragment instanceof AppendingFormatter) {
+                if (!((AppendingFormatter) fragment).appendTo(entry, builder, logger)) return false;
+            } else if (fragment instanceof Formatter) {
+                Optional<String> formattedFragment = ((Formatter) fragment).apply(entry, logger);
+                if (formattedFragment.isEmpty()) return false;
+                builder.append(formattedFragment.get());
+            } else if (fragment instanceof CharSequence) {
+                builder.append((CharSequence) fragment);
+            } else if (fragment instanceof Character) {
+                builder.append((char) fragment);
+            } else {
+                throw new AssertionError();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Takes the buffer of the current thread, or a new one if it is already taken,
+     * which happens when producing an entry logs another one.
+     */
+    static StringBuilder acquireBuffer() {
+        StringBuilder buffer = buffers.get();
+        if (buffer == null) {
+            return new StringBuilder(256);
+        }
+        buffers.set(null);
+        buffer.setLength(0);
+        return buffer;
+    }
+
+    static void releaseBuffer(StringBuilder buffer) {
+        if (buffer.capacity() <= maximumBufferCapacity) {
+            buffers.set(buffer);
+        }
+    }
+
+    /**
+     * Views are equal when they have the same layout, that is when they always produce the same entry.
+     * The encoder is not taken into account.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof ProducerView)) return false;
+        ProducerView other = (ProducerView) obj;
+        return hashCode == other.hashCode && Arrays.equals(fragments, other.fragments);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
     @Override
     public String toString() {
-        return formatters.size() + "+" + (fragments.size() - formatters.size());
+        return formatters.size() + "+" + (fragments.length - formatters.size());
     }
 }
@@ -16,23 +16,64 @@
 
 package eu.menzani.logger.impl;
 
+import eu.menzani.logger.ConfigurableThreadFactory;
 import eu.menzani.logger.Objects;
-import eu.menzani.logger.api.Consumer;
+import eu.menzani.logger.api.ByteConsumer;
 import eu.menzani.logger.api.RotationPolicy;
 
 import java.io.IOException;
-import java.io.OutputStream;
-import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.temporal.Temporal;
 import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Asks the policy for the current file only once the timestamp of an entry reaches
+ * the {@linkplain RotationPolicy#nextRotation(Temporal) deadline} of the current file,
+ * so that most entries are written after a single volatile read and comparison.
+ * <p/>
+ * If the policy knows the {@linkplain RotationPolicy#upcomingFile(Path, Temporal) upcoming file},
+ * that is opened in the background shortly before the deadline, and the previous file is closed
+ * in the background after the switch, so that rotating usually costs the logging thread a reference swap.
+ * The policy itself is only asked for the current file by logging threads.
+ * Failures in the background are thrown by the next entry which rotates, after it has been written.
+ * <p/>
+ * Entries reserve their range of the file by adding their size to a counter kept for each file,
+ * which is compared against the {@linkplain RotationPolicy#getMaximumSize() maximum size} of the policy.
+ * Files opened ahead of a deadline can be preallocated to the maximum size,
+ * in which case they are truncated to their content when closed.
+ * If the consumer was not closed, the zeros after the content are truncated when the file is opened again.
+ * <p/>
+ * Interrupting a thread while it writes would close the file for every thread, so the interrupt status is
+ * cleared while consuming and restored afterwards. A file closed by an interrupt anyway is opened again.
+ */
+public final class RotatingFileConsumer implements ByteConsumer, AutoCloseable {
+    private static final ScheduledExecutorService rotator =
+            Executors.newSingleThreadScheduledExecutor(ConfigurableThreadFactory.daemon("RotatingFileConsumer rotator"));
+    private static final long closeDelay = TimeUnit.MILLISECONDS.toNanos(100L);
+    private static final int preallocationBlockSize = 1 << 16;
 
-public final class RotatingFileConsumer implements Consumer {
     private final Path root;
     private RotationPolicy policy;
+    private volatile long maximumSize = Long.MAX_VALUE;
+    private boolean preallocated;
+    private long preparationTime = TimeUnit.SECONDS.toNanos(1L);
     private volatile LogFile currentFile;
+    private LogFile nextFile; // Guarded by this
+    private final AtomicReference<Exception> backgroundFailure = new AtomicReference<>();
 
     public RotatingFileConsumer(Path root) {
         if (Files.isRegularFile(Objects.objectNotNull(root, "root"))) {
@@ -43,40 +84,339 @@ public final class RotatingFileConsumer implements Consumer {
 
     public synchronized RotatingFileConsumer setPolicy(RotationPolicy policy) {
         this.policy = Objects.objectNotNull(policy, "policy");
+        maximumSize = policy.getMaximumSize();
         currentFile = null;
+        nextFile = null;
+        return this;
+    }
+
+    /**
+     * Sets how long before the deadline of the current file the next one is opened. By default, one second.
+     */
+    public synchronized RotatingFileConsumer setPreparationTime(long preparationTime, TimeUnit unit) {
+        if (preparationTime < 0) {
+            throw new IllegalArgumentException("preparationTime must not be negative.");
+        }
+        this.preparationTime = unit.toNanos(preparationTime);
+        return this;
+    }
+
+    /**
+     * Fills files opened ahead of a deadline with zeros up to the maximum size of the policy, in the background,
+     * so that the file system allocates their blocks before entries are written to them.
+     * Files opened by logging threads, such as the next file after a rotation by size, are not preallocated.
+     * Preallocation stops once entries are written to the file. By default, files are not preallocated.
+     * <p/>
+     * If the process exits without {@linkplain #close() closing} this consumer, files end with zeros
+     * until they are opened again by a rotating file consumer.
+     */
+    public synchronized RotatingFileConsumer setPreallocated(boolean preallocated) {
+        this.preallocated = preallocated;
         return this;
     }
 
     @Override
-    public void consume(LogEntry entry, String formattedEntry) throws Exception {
-        synchronized (this) {
-            shouldRotate(entry.getTimestamp()).ifPresent(newerFile -> currentFile = newerFile);
+    public void consume(LogEntry entry, ByteBuffer encodedEntry) throws Exception {
+        boolean interrupted = Thread.interrupted();
+        try {
+            LogFile currentFile = this.currentFile;
+            boolean rotated = currentFile == null || !entry.hasInstant() || entry.getTimestampNanos() >= currentFile.deadline;
+            if (rotated) {
+                currentFile = rotate(entry);
+            }
+            int start = encodedEntry.position();
+            int length = encodedEntry.remaining();
+            Segment segment = null;
+            long position = 0L;
+            while (true) {
+                if (segment == null) {
+                    segment = currentFile.segment;
+                    position = segment.size.getAndAdd(length);
+                    if (position != 0L && position + length > maximumSize) {
+                        segment.end.accumulateAndGet(position, Math::min);
+                        currentFile = rotateBySize(currentFile, entry);
+                        rotated = true;
+                        segment = null;
+                        continue;
+                    }
+                }
+                FileChannel channel = segment.channel;
+                try {
+                    while (encodedEntry.hasRemaining()) {
+                        position += channel.write(encodedEntry, position);
+                    }
+                    break;
+                } catch (ClosedChannelException e) {
+                    if (Thread.interrupted()) {
+                        interrupted = true;
+                    }
+                    // Closed by an interrupt: the range reserved in the segment is still valid
+                    if (segment.reopen(channel)) continue;
+                    // Rotated by another thread after this one read the current file
+                    LogFile newerFile = this.currentFile;
+                    if (newerFile == null || newerFile.segment == segment) throw e;
+                    currentFile = newerFile;
+                    encodedEntry.position(start);
+                    segment = null;
+                }
+            }
+            if (rotated) {
+                Exception failure = backgroundFailure.getAndSet(null);
+                if (failure != null) throw failure;
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
         }
-        currentFile.writer.println(formattedEntry);
     }
 
-    private Optional<LogFile> shouldRotate(Temporal timestamp) throws IOException {
+    private synchronized LogFile rotate(LogEntry entry) throws IOException {
+        LogFile currentFile = this.currentFile;
+        // Without an instant, deadlines cannot be compared and the policy is asked for every entry
+        boolean hasInstant = entry.hasInstant();
+        if (currentFile != null && hasInstant && entry.getTimestampNanos() < currentFile.deadline) {
+            return currentFile;
+        }
+        LogFile nextFile = this.nextFile;
+        this.nextFile = null;
+        Temporal timestamp = entry.getTimestamp();
         if (currentFile == null) {
             Files.createDirectories(root);
             policy.doInitialize(root, timestamp);
-            return Optional.of(new LogFile(policy.getCurrentFile(root, timestamp)));
         }
-        Path currentFilePath = policy.getCurrentFile(root, timestamp);
-        if (currentFile.path.equals(currentFilePath)) {
+        // The prepared file is reused only if the policy agrees
+        LogFile newerFile = openOrReuse(policy.getCurrentFile(root, timestamp),
+                hasInstant ? policy.getNextRotation(timestamp) : Long.MIN_VALUE, currentFile, nextFile);
+        if (nextFile != null && (currentFile == null || nextFile.segment != currentFile.segment)) {
+            closeInBackground(nextFile, newerFile);
+        }
+        newerFile.segment.stopPreallocation();
+        this.currentFile = newerFile;
+        closeInBackground(currentFile, newerFile);
+        schedulePreparation(newerFile);
+        return newerFile;
+    }
+
+    private synchronized LogFile rotateBySize(LogFile file, LogEntry entry) throws IOException {
+        LogFile currentFile = this.currentFile;
+        if (currentFile != file) {
+            return currentFile;
+        }
+        Temporal timestamp = entry.getTimestamp();
+        policy.doStartNextFile(root, timestamp);
+        LogFile newerFile = openOrReuse(policy.getCurrentFile(root, timestamp), file.deadline, nextFile);
+        newerFile.segment.stopPreallocation();
+        this.currentFile = newerFile;
+        closeInBackground(file, newerFile);
+        schedulePreparation(newerFile);
+        return newerFile;
+    }
+
+    private void schedulePreparation(LogFile file) {
+        if (file.deadline == Long.MIN_VALUE || file.deadline == Long.MAX_VALUE) return;
+        long delay = file.deadline - preparationTime - SystemEpochClock.instance.nanos();
+        rotator.schedule(() -> prepare(file), Math.max(0L, delay), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Preallocates without holding the lock of this consumer, so that logging threads can rotate meanwhile.
+     */
+    private void prepare(LogFile file) {
+        Optional<Segment> segment = openNextFile(file);
+        if (segment.isEmpty()) return;
+        try {
+            segment.get().preallocate(maximumSize);
+        } catch (IOException e) {
+            reportBackgroundFailure(e);
+        }
+    }
+
+    /**
+     * @return the segment to preallocate, if any.
+     */
+    private synchronized Optional<Segment> openNextFile(LogFile file) {
+        if (currentFile != file || nextFile != null) return Optional.empty();
+        LocalDateTime timestamp = LocalDateTime.ofInstant(Instant.ofEpochSecond(0L, file.deadline), ZoneId.systemDefault());
+        try {
+            Optional<Path> upcomingFile = policy.getUpcomingFile(root, timestamp);
+            if (upcomingFile.isEmpty()) return Optional.empty();
+            Path path = upcomingFile.get();
+            if (path.equals(file.path)) {
+                nextFile = new LogFile(path, file.segment, Long.MIN_VALUE);
+                return Optional.empty();
+            }
+            boolean preallocated = this.preallocated && maximumSize != Long.MAX_VALUE;
+            Segment segment = openSegment(path, preallocated);
+            nextFile = new LogFile(path, segment, Long.MIN_VALUE);
+            return preallocated ? Optional.of(segment) : Optional.empty();
+        } catch (IOException | RuntimeException e) {
+            // The logging thread will open the file when the deadline is reached
+            reportBackgroundFailure(e);
             return Optional.empty();
         }
-        currentFile.writer.close();
-        return Optional.of(new LogFile(currentFilePath));
+    }
+
+    private void reportBackgroundFailure(Exception e) {
+        Exception failure = backgroundFailure.compareAndExchange(null, e);
+        if (failure != null) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    private LogFile openOrReuse(Path path, long deadline, LogFile... openFiles) throws IOException {
+        Objects.objectNotNull(path, "policy#currentFile()");
+        for (LogFile openFile : openFiles) {
+            if (openFile != null && openFile.path.equals(path)) {
+                return new LogFile(path, openFile.segment, deadline);
+            }
+        }
+        return new LogFile(path, openSegment(path, false), deadline);
+    }
+
+    private Segment openSegment(Path path, boolean preallocated) throws IOException {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return doOpenSegment(path, preallocated);
+                } catch (ClosedByInterruptException e) {
+                    Thread.interrupted();
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private Segment doOpenSegment(Path path, boolean preallocated) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = TrailingZeros.findEnd(channel);
+        if (channel.size() > size) {
+            // Preallocated by a process which exited without closing it
+            channel.truncate(size);
+        }
+        return new Segment(path, channel, size, preallocated);
+    }
+
+    /**
+     * Waits a little before closing, so that entries which were about to be written to {@code file} still end up in it.
+     */
+    private void closeInBackground(LogFile file, LogFile newerFile) {
+        if (file == null || file.segment == newerFile.segment) return;
+        rotator.schedule(() -> {
+            try {
+                file.segment.close();
+            } catch (IOException e) {
+                reportBackgroundFailure(e);
+            }
+        }, closeDelay, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Must not be called while entries are being consumed. The policy can be set again afterwards.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        LogFile currentFile = this.currentFile;
+        LogFile nextFile = this.nextFile;
+        this.currentFile = null;
+        this.nextFile = null;
+        if (nextFile != null && (currentFile == null || nextFile.segment != currentFile.segment)) {
+            nextFile.segment.close();
+        }
+        if (currentFile != null) {
+            currentFile.segment.close();
+        }
     }
 
     private static final class LogFile {
         private final Path path;
-        private final PrintWriter writer;
+        private final Segment segment;
+        private final long deadline;
+
+        private LogFile(Path path, Segment segment, long deadline) {
+            this.path = path;
+            this.segment = segment;
+            this.deadline = deadline;
+        }
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private volatile FileChannel channel; // Written while holding this
+        private final AtomicLong size;
+        private final AtomicLong end = new AtomicLong(Long.MAX_VALUE);
+        private final boolean preallocated;
+        private boolean closed; // Guarded by this
+        private boolean preallocationStopped; // Guarded by this
+
+        private Segment(Path path, FileChannel channel, long size, boolean preallocated) {
+            this.path = path;
+            this.channel = channel;
+            this.size = new AtomicLong(size);
+            this.preallocated = preallocated;
+        }
+
+        /**
+         * Writes zeros after the content a block at a time, so that {@link #stopPreallocation()}
+         * waits for one block at most. Must be called before entries are written.
+         */
+        private void preallocate(long maximumSize) throws IOException {
+            ByteBuffer zeros = ByteBuffer.allocateDirect(preallocationBlockSize);
+            long position = size.get();
+            while (position < maximumSize) {
+                synchronized (this) {
+                    if (closed || preallocationStopped) return;
+                    zeros.clear().limit((int) Math.min(preallocationBlockSize, maximumSize - position));
+                    while (zeros.hasRemaining()) {
+                        position += channel.write(zeros, position);
+                    }
+                }
+            }
+        }
+
+        private void stopPreallocation() {
+            if (!preallocated) return;
+            synchronized (this) {
+                preallocationStopped = true;
+            }
+        }
+
+        /**
+         * Replaces {@code closedChannel}, unless another thread already did.
+         *
+         * @return {@code false} if this segment was closed instead.
+         */
+        private synchronized boolean reopen(FileChannel closedChannel) throws IOException {
+            if (closed) return false;
+            if (channel == closedChannel) {
+                channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+            return true;
+        }
 
-        private LogFile(Path path) throws IOException {
-            this.path = Objects.objectNotNull(path, "policy#currentFile()");
-            OutputStream stream = Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
-            writer = new PrintWriter(stream, true);
+        private synchronized void close() throws IOException {
+            if (closed) return;
+            closed = true;
+            boolean interrupted = Thread.interrupted();
+            try {
+                FileChannel channel = this.channel;
+                if (preallocated) {
+                    if (!channel.isOpen()) {
+                        channel = FileChannel.open(path, StandardOpenOption.WRITE);
+                    }
+                    channel.truncate(Math.min(size.get(), end.get()));
+                }
+                channel.close();
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
         }
     }
 }
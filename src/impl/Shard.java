@@ -0,0 +1,119 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import eu.menzani.logger.Cloneable;
+import eu.menzani.logger.Objects;
+import eu.menzani.logger.RingBuffer;
+import eu.menzani.logger.api.OverflowPolicy;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gives a {@link Pipeline} its own bounded queue and worker threads in {@link ParallelLogger},
+ * so that a slow pipeline backs up on its own queue while the others keep flowing.
+ * When the queue is full, entries go through {@code overflowPolicy}, which runs on the dispatcher thread:
+ * a blocking policy would stall every other pipeline, so by default entries that do not fit are dropped.
+ * <p/>
+ * With more than one worker, entries of the same pipeline may be consumed out of order.
+ */
+public final class Shard implements Cloneable<Shard> {
+    private final int capacity;
+    private final int workers;
+    private final OverflowPolicy overflowPolicy;
+    private final LongAdder processedCount = new LongAdder();
+    private final LongAccumulator maximumLag = new LongAccumulator(Math::max, 0L);
+    private volatile RingBuffer<LogEntry> queue;
+
+    public Shard() {
+        this(1 << 10);
+    }
+
+    public Shard(int capacity) {
+        this(capacity, 1, new DropNewestOverflowPolicy());
+    }
+
+    public Shard(int capacity, int workers, OverflowPolicy overflowPolicy) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a positive power of two.");
+        }
+        if (workers < 1) {
+            throw new IllegalArgumentException("workers must be positive.");
+        }
+        this.capacity = capacity;
+        this.workers = workers;
+        this.overflowPolicy = Objects.objectNotNull(overflowPolicy, "overflowPolicy");
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * @return the number of entries waiting in the queue of this shard.
+     */
+    public int getLag() {
+        RingBuffer<LogEntry> queue = this.queue;
+        if (queue == null) return 0;
+        return queue.size();
+    }
+
+    public long getMaximumLag() {
+        return maximumLag.get();
+    }
+
+    public long getProcessedCount() {
+        return processedCount.sum();
+    }
+
+    public long getDroppedCount() {
+        return overflowPolicy.getDroppedCount();
+    }
+
+    RingBuffer<LogEntry> newQueue() {
+        RingBuffer<LogEntry> queue = new RingBuffer<>(capacity);
+        this.queue = queue;
+        return queue;
+    }
+
+    void enqueued(RingBuffer<LogEntry> queue) {
+        maximumLag.accumulate(queue.size());
+    }
+
+    void processed() {
+        processedCount.increment();
+    }
+
+    @Override
+    public Shard clone() {
+        return new Shard(capacity, workers, overflowPolicy);
+    }
+
+    @Override
+    public String toString() {
+        return "Shard{" + capacity + " x " + workers + "}";
+    }
+}
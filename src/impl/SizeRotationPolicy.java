@@ -0,0 +1,78 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import eu.menzani.logger.Objects;
+import eu.menzani.logger.StringFormat;
+import eu.menzani.logger.api.RotationPolicy;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.temporal.Temporal;
+
+/**
+ * Switches to a new file, named after the first unused {@code id}, at startup and whenever a file reaches a maximum size.
+ */
+public final class SizeRotationPolicy implements RotationPolicy {
+    private final StringFormat.Template nameTemplate;
+    private final long maximumSize;
+    private int id;
+    private Path currentFile;
+
+    public SizeRotationPolicy(String nameFormat, long maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize must be positive.");
+        }
+        nameTemplate = new StringFormat(Objects.objectNotNull(nameFormat, "nameFormat")).compile();
+        this.maximumSize = maximumSize;
+    }
+
+    @Override
+    public void initialize(Path root, Temporal timestamp) {
+        id = 0;
+        startNextFile(root, timestamp);
+    }
+
+    @Override
+    public Path currentFile(Path root, Temporal timestamp) {
+        return currentFile;
+    }
+
+    @Override
+    public long nextRotation(Temporal timestamp) {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    @Override
+    public void startNextFile(Path root, Temporal timestamp) {
+        StringFormat.Binder name = nameTemplate.bind();
+        while (id < Integer.MAX_VALUE) {
+            id++;
+            Path file = root.resolve(name.fill("id", id).toString());
+            if (Files.notExists(file)) {
+                currentFile = file;
+                return;
+            }
+        }
+        throw new RotationException("all IDs have been used");
+    }
+}
@@ -27,7 +27,7 @@ import java.time.format.DateTimeFormatter;
 import java.time.temporal.Temporal;
 
 public final class StartupRotationPolicy implements RotationPolicy {
-    private final StringFormat nameFormat;
+    private final StringFormat.Template nameTemplate;
     private final DateTimeFormatter timestampFormatter;
     private Path currentFile;
 
@@ -36,17 +36,18 @@ public final class StartupRotationPolicy implements RotationPolicy {
     }
 
     public StartupRotationPolicy(String nameFormat, @Nullable DateTimeFormatter timestampFormatter) {
-        this.nameFormat = new StringFormat(Objects.objectNotNull(nameFormat, "nameFormat"));
+        nameTemplate = new StringFormat(Objects.objectNotNull(nameFormat, "nameFormat")).compile();
         this.timestampFormatter = timestampFormatter;
     }
 
     @Override
     public void initialize(Path root, Temporal timestamp) {
+        StringFormat.Binder name = nameTemplate.bind();
         if (timestampFormatter != null) {
-            nameFormat.fill("timestamp", timestampFormatter.format(timestamp));
+            name.fill("timestamp", timestampFormatter.format(timestamp));
         }
         for (short id = 1; id < Short.MAX_VALUE; id++) {
-            Path file = root.resolve(nameFormat.clone().fill("id", id).toString());
+            Path file = root.resolve(name.fill("id", id).toString());
             if (Files.notExists(file)) {
                 currentFile = file;
                 return;
@@ -59,4 +60,9 @@ public final class StartupRotationPolicy implements RotationPolicy {
     public Path currentFile(Path root, Temporal timestamp) {
         return currentFile;
     }
+
+    @Override
+    public long nextRotation(Temporal timestamp) {
+        return Long.MAX_VALUE;
+    }
 }
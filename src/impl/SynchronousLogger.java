@@ -16,17 +16,15 @@
 
 package eu.menzani.logger.impl;
 
-import eu.menzani.logger.api.Clock;
-import eu.menzani.logger.api.ExceptionHandler;
-import eu.menzani.logger.api.Formatter;
-import eu.menzani.logger.api.PipelineLogger;
+import eu.menzani.logger.api.*;
 
-import java.util.Map;
+import java.nio.ByteBuffer;
 import java.util.Optional;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 public final class SynchronousLogger extends PipelineLogger {
+    private final FormatSharing formatSharing = new FormatSharing();
+
     public SynchronousLogger() {
         super();
     }
@@ -41,12 +39,25 @@ public final class SynchronousLogger extends PipelineLogger {
         return this;
     }
 
+    @Override
+    public SynchronousLogger setEpochClock(EpochClock epochClock) {
+        super.setEpochClock(epochClock);
+        return this;
+    }
+
     @Override
     public SynchronousLogger setExceptionHandler(ExceptionHandler exceptionHandler) {
         super.setExceptionHandler(exceptionHandler);
         return this;
     }
 
+    /**
+     * @return how many times an entry was not produced again because a pipeline with an equal producer already did.
+     */
+    public long getDeduplicatedFormatCount() {
+        return formatSharing.getDeduplicatedCount();
+    }
+
     @Override
     public SynchronousLogger clone() {
         return (SynchronousLogger) super.clone();
@@ -59,27 +70,54 @@ public final class SynchronousLogger extends PipelineLogger {
 
     @Override
     protected void doLog(LogEntry logEntry) {
-        logEntry.setTimestamp(getClockTime());
-        for (Pipeline pipeline : getPipelines()) {
-            boolean rejected = pipeline.getFilters().stream()
-                    .anyMatch(filter -> filter.test(logEntry, this));
-            if (rejected) continue;
-
-            ProducerView producer = pipeline.getProducer();
-            Map<Formatter, Optional<String>> formattedFragments = producer.getFormatters().stream()
-                    .collect(Collectors.toMap(Function.identity(), formatter -> formatter.apply(logEntry, this)));
-            if (!formattedFragments.values().stream()
-                    .allMatch(Optional::isPresent)) continue;
-            String formattedEntry = producer.produce(
-                    formattedFragments.entrySet().stream()
-                            .collect(Collectors.toMap(Map.Entry::getKey, entry -> {
-                                Optional<String> formattedFragment = entry.getValue();
-                                assert formattedFragment.isPresent();
-                                return formattedFragment.get();
-                            })));
-
-            pipeline.getConsumers()
-                    .forEach(consumer -> consumer.accept(logEntry, formattedEntry, this));
+        setTimestamp(logEntry);
+        StringBuilder buffer = ProducerView.acquireBuffer();
+        try {
+            Set<Pipeline> pipelines = getPipelines();
+            FormatSharing.Snapshot sharing = formatSharing.snapshot(pipelines);
+            for (Pipeline pipeline : pipelines) {
+                if (isRejected(pipeline, logEntry)) continue;
+
+                ProducerView producer = pipeline.getProducer();
+                CharSequence producedEntry;
+                if (sharing.isShared(producer)) {
+                    Optional<String> sharedEntry = formatSharing.produce(producer, logEntry, buffer, this, sharing);
+                    if (sharedEntry.isEmpty()) continue;
+                    producedEntry = sharedEntry.get();
+                } else {
+                    buffer.setLength(0);
+                    if (!producer.produceTo(logEntry, buffer, this, formatSharing, sharing)) continue;
+                    producedEntry = buffer;
+                }
+
+                String formattedEntry = null;
+                ByteBuffer encodedEntry = null;
+                for (Consumer consumer : pipeline.getConsumers()) {
+                    if (consumer instanceof ByteConsumer) {
+                        if (encodedEntry == null) {
+                            encodedEntry = producer.getEncoder().encode(producedEntry);
+                        }
+                        ((ByteConsumer) consumer).accept(logEntry, encodedEntry.rewind(), this);
+                    } else {
+                        if (formattedEntry == null) {
+                            formattedEntry = producedEntry.toString();
+                        }
+                        consumer.accept(logEntry, formattedEntry, this);
+                    }
+                }
+                if (encodedEntry != null) {
+                    producer.getEncoder().release(encodedEntry);
+                }
+            }
+        } finally {
+            ProducerView.releaseBuffer(buffer);
+        }
+    }
+
+    private boolean isRejected(Pipeline pipeline, LogEntry logEntry) {
+        for (Filter filter : pipeline.getFilters()) {
+            if (filter.test(logEntry, this)) return true;
         }
+        return false;
     }
 }
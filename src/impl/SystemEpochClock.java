@@ -0,0 +1,48 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import eu.menzani.logger.api.EpochClock;
+
+/**
+ * Reads {@link System#currentTimeMillis()} for the wall time and {@link System#nanoTime()} for the digits below
+ * the millisecond, without allocating.
+ * Readings are accurate to the millisecond and ordered within it.
+ */
+public final class SystemEpochClock implements EpochClock {
+    public static final SystemEpochClock instance = new SystemEpochClock();
+
+    private static final long nanosPerMilli = 1_000_000L;
+
+    private volatile long offsetNanos;
+
+    private SystemEpochClock() {
+        offsetNanos = System.currentTimeMillis() * nanosPerMilli - System.nanoTime();
+    }
+
+    @Override
+    public long nanos() {
+        long nanos = System.nanoTime() + offsetNanos;
+        long milliNanos = System.currentTimeMillis() * nanosPerMilli;
+        long drift = nanos - milliNanos;
+        if (drift < 0L || drift >= nanosPerMilli) { // Left the millisecond of the wall clock
+            offsetNanos = milliNanos - System.nanoTime();
+            return milliNanos;
+        }
+        return nanos;
+    }
+}
@@ -21,13 +21,23 @@ import eu.menzani.logger.StringFormat;
 import eu.menzani.logger.api.RotationPolicy;
 
 import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.time.temporal.Temporal;
 import java.time.temporal.TemporalAccessor;
 import java.time.temporal.TemporalField;
+import java.time.temporal.TemporalUnit;
+import java.time.temporal.UnsupportedTemporalTypeException;
+import java.util.Optional;
 
 public final class TemporalRotationPolicy implements RotationPolicy {
-    private final StringFormat nameFormat;
+    private final StringFormat.Template nameTemplate;
     private final DateTimeFormatter timestampFormatter;
     private final int stepWidth;
     private final TemporalField stepWidthField;
@@ -37,7 +47,7 @@ public final class TemporalRotationPolicy implements RotationPolicy {
         if (stepWidth < 1) {
             throw new IllegalArgumentException("stepWidth must be positive.");
         }
-        this.nameFormat = new StringFormat(Objects.objectNotNull(nameFormat, "nameFormat"));
+        nameTemplate = new StringFormat(Objects.objectNotNull(nameFormat, "nameFormat")).compile();
         this.timestampFormatter = Objects.objectNotNull(timestampFormatter, "timestampFormatter");
         this.stepWidth = stepWidth;
         this.stepWidthField = Objects.objectNotNull(stepWidthField, "stepWidthField");
@@ -50,8 +60,73 @@ public final class TemporalRotationPolicy implements RotationPolicy {
 
     @Override
     public Path currentFile(Path root, Temporal timestamp) {
+        return root.resolve(nameTemplate.bind().fill("timestamp", formatStep(timestamp)).toString());
+    }
+
+    @Override
+    public Optional<Path> upcomingFile(Path root, Temporal timestamp) {
+        return Optional.of(currentFile(root, timestamp));
+    }
+
+    String formatStep(Temporal timestamp) {
         TemporalAccessor roundedDown = timestamp.with(stepWidthField,
                 timestamp.get(stepWidthField) / stepWidth * stepWidth);
-        return root.resolve(nameFormat.clone().fill("timestamp", timestampFormatter.format(roundedDown)).toString());
+        return timestampFormatter.format(roundedDown);
+    }
+
+    /**
+     * The deadline is known for {@link LocalDateTime} and {@link ZonedDateTime} timestamps and fields whose unit
+     * is at most a day, a month or a year. Otherwise, the current file is asked for every entry.
+     * <p/>
+     * A {@link LocalDateTime} in the overlap of a daylight saving time transition could be either of two instants,
+     * so a deadline in the same overlap is taken at the later offset, which is never in the past.
+     */
+    @Override
+    public long nextRotation(Temporal timestamp) {
+        LocalDateTime dateTime;
+        ZoneId zone;
+        ZoneOffset offset;
+        if (timestamp instanceof ZonedDateTime) {
+            ZonedDateTime zonedDateTime = (ZonedDateTime) timestamp;
+            dateTime = zonedDateTime.toLocalDateTime();
+            zone = zonedDateTime.getZone();
+            offset = zonedDateTime.getOffset();
+        } else if (timestamp instanceof LocalDateTime) {
+            dateTime = (LocalDateTime) timestamp;
+            zone = ZoneId.systemDefault();
+            offset = dateTime.atZone(zone).withLaterOffsetAtOverlap().getOffset();
+        } else {
+            return Long.MIN_VALUE;
+        }
+        try {
+            TemporalUnit unit = stepWidthField.getBaseUnit();
+            LocalDateTime start = truncate(dateTime.with(stepWidthField,
+                    dateTime.get(stepWidthField) / stepWidth * stepWidth), unit);
+            LocalDateTime deadline = start.plus(stepWidth, unit);
+            TemporalUnit rangeUnit = stepWidthField.getRangeUnit();
+            if (rangeUnit != ChronoUnit.FOREVER) {
+                LocalDateTime rangeEnd = truncate(start, rangeUnit).plus(1L, rangeUnit);
+                if (rangeEnd.isBefore(deadline)) {
+                    deadline = rangeEnd;
+                }
+            }
+            Instant instant = ZonedDateTime.ofLocal(deadline, zone, offset).toInstant();
+            return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000_000L), instant.getNano());
+        } catch (DateTimeException | ArithmeticException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    private static LocalDateTime truncate(LocalDateTime dateTime, TemporalUnit unit) {
+        if (unit == ChronoUnit.MONTHS) {
+            return dateTime.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+        }
+        if (unit == ChronoUnit.YEARS) {
+            return dateTime.truncatedTo(ChronoUnit.DAYS).withDayOfYear(1);
+        }
+        if (unit.isTimeBased() || unit == ChronoUnit.DAYS) {
+            return dateTime.truncatedTo(unit);
+        }
+        throw new UnsupportedTemporalTypeException("Unsupported unit: " + unit);
     }
 }
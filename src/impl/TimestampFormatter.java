@@ -17,13 +17,36 @@
 package eu.menzani.logger.impl;
 
 import eu.menzani.logger.Objects;
-import eu.menzani.logger.api.Formatter;
+import eu.menzani.logger.api.AppendingFormatter;
 
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.format.FormatStyle;
 
-public final class TimestampFormatter implements Formatter {
+/**
+ * Renders the part of the timestamp that doesn't change within a second once per second,
+ * and patches the fraction of second for each entry.
+ * <p/>
+ * Patterns passed to {@link #TimestampFormatter(String)} are cached when they contain at most one run of
+ * {@code S} outside optional sections and no other sub-second field. {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME},
+ * {@link DateTimeFormatter#ISO_LOCAL_TIME} and formatters which don't print sub-second fields are cached too.
+ * Anything else, as well as entries whose timestamp was set as a {@link java.time.temporal.Temporal},
+ * is formatted by the {@link DateTimeFormatter} every time.
+ */
+public final class TimestampFormatter implements AppendingFormatter {
+    private static final int nanoDigits = 9;
+    private static final LocalDateTime probeTimestamp = LocalDateTime.of(2020, 1, 1, 0, 0);
+
     private final DateTimeFormatter formatter;
+    private final String description;
+    private final Fraction fraction;
+    private final int fractionDigits;
+    private final DateTimeFormatter prefixFormatter;
+    private final DateTimeFormatter suffixFormatter;
+    private volatile Second second = new Second(Long.MIN_VALUE, "", "");
 
     public TimestampFormatter() {
         this(DateTimeFormatter.ofLocalizedDateTime(FormatStyle.MEDIUM));
@@ -31,10 +54,173 @@ public final class TimestampFormatter implements Formatter {
 
     public TimestampFormatter(DateTimeFormatter formatter) {
         this.formatter = Objects.objectNotNull(formatter, "formatter");
+        description = formatter.toString();
+        if (formatter == DateTimeFormatter.ISO_LOCAL_DATE_TIME || formatter == DateTimeFormatter.ISO_LOCAL_TIME) {
+            fraction = Fraction.ISO;
+        } else if (printsOnlyWholeSeconds(formatter)) {
+            fraction = Fraction.NONE;
+        } else {
+            fraction = Fraction.UNCACHED;
+        }
+        fractionDigits = 0;
+        prefixFormatter = formatter;
+        suffixFormatter = null;
+    }
+
+    public TimestampFormatter(String pattern) {
+        formatter = DateTimeFormatter.ofPattern(Objects.objectNotNull(pattern, "pattern"));
+        description = formatter.toString();
+
+        int fractionStart = -1;
+        int fractionEnd = -1;
+        boolean cacheable = true;
+        boolean quoted = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (quoted) {
+                continue;
+            } else if (c == 'S') {
+                if (fractionStart != -1 && fractionEnd != i) {
+                    cacheable = false;
+                } else if (fractionStart == -1) {
+                    fractionStart = i;
+                }
+                fractionEnd = i + 1;
+            } else if (c == 'n' || c == 'N' || c == 'A' || c == '[' || c == ']') {
+                cacheable = false;
+            }
+        }
+
+        if (fractionStart == -1) {
+            fraction = cacheable || printsOnlyWholeSeconds(formatter) ? Fraction.NONE : Fraction.UNCACHED;
+            fractionDigits = 0;
+            prefixFormatter = formatter;
+            suffixFormatter = null;
+        } else if (cacheable && fractionEnd - fractionStart <= nanoDigits && (fractionStart == 0 || pattern.charAt(fractionStart - 1) != 'p')) {
+            fraction = Fraction.FIXED;
+            fractionDigits = fractionEnd - fractionStart;
+            prefixFormatter = DateTimeFormatter.ofPattern(pattern.substring(0, fractionStart), formatter.getLocale());
+            suffixFormatter = DateTimeFormatter.ofPattern(pattern.substring(fractionEnd), formatter.getLocale());
+        } else {
+            fraction = Fraction.UNCACHED;
+            fractionDigits = 0;
+            prefixFormatter = formatter;
+            suffixFormatter = null;
+        }
+    }
+
+    private static boolean printsOnlyWholeSeconds(DateTimeFormatter formatter) {
+        try {
+            return formatter.format(probeTimestamp).equals(formatter.format(probeTimestamp.withNano(123_456_789)));
+        } catch (DateTimeException e) {
+            return false;
+        }
     }
 
     @Override
     public String format(LogEntry entry) {
-        return formatter.format(entry.getTimestamp());
+        if (fraction == Fraction.UNCACHED || !entry.hasTimestampNanos()) {
+            return formatter.format(entry.getTimestamp());
+        }
+        StringBuilder builder = new StringBuilder(32);
+        formatCached(entry.getTimestampNanos(), builder);
+        return builder.toString();
+    }
+
+    @Override
+    public boolean formatTo(LogEntry entry, StringBuilder builder) {
+        if (fraction == Fraction.UNCACHED || !entry.hasTimestampNanos()) {
+            formatter.formatTo(entry.getTimestamp(), builder);
+        } else {
+            formatCached(entry.getTimestampNanos(), builder);
+        }
+        return true;
+    }
+
+    private void formatCached(long timestampNanos, StringBuilder builder) {
+        long epochSecond = Math.floorDiv(timestampNanos, 1_000_000_000L);
+        int nano = (int) Math.floorMod(timestampNanos, 1_000_000_000L);
+        Second second = this.second;
+        if (second.epochSecond != epochSecond) {
+            second = newSecond(epochSecond);
+            this.second = second;
+        }
+
+        builder.append(second.prefix);
+        switch (fraction) {
+            case FIXED:
+                appendDigits(nano, fractionDigits, builder);
+                break;
+            case ISO:
+                if (nano != 0) {
+                    int digits = nanoDigits;
+                    int trimmedNano = nano;
+                    while (trimmedNano % 10 == 0) {
+                        trimmedNano /= 10;
+                        digits--;
+                    }
+                    builder.append('.');
+                    appendDigits(nano, digits, builder);
+                }
+                break;
+        }
+        builder.append(second.suffix);
+    }
+
+    private Second newSecond(long epochSecond) {
+        LocalDateTime timestamp = LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneId.systemDefault());
+        String prefix = prefixFormatter.format(timestamp);
+        String suffix = suffixFormatter == null ? "" : suffixFormatter.format(timestamp);
+        return new Second(epochSecond, prefix, suffix);
+    }
+
+    private static void appendDigits(int nano, int digits, StringBuilder builder) {
+        int divisor = 100_000_000;
+        for (int i = 0; i < digits; i++) {
+            builder.append((char) ('0' + nano / divisor % 10));
+            divisor /= 10;
+        }
+    }
+
+    /**
+     * Formatters are equal when their {@link DateTimeFormatter}s print the same fields
+     * with the same locale, decimal style, chronology and zone.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof TimestampFormatter)) return false;
+        TimestampFormatter other = (TimestampFormatter) obj;
+        return description.equals(other.description) &&
+                formatter.getLocale().equals(other.formatter.getLocale()) &&
+                formatter.getDecimalStyle().equals(other.formatter.getDecimalStyle()) &&
+                java.util.Objects.equals(formatter.getChronology(), other.formatter.getChronology()) &&
+                java.util.Objects.equals(formatter.getZone(), other.formatter.getZone());
+    }
+
+    @Override
+    public int hashCode() {
+        return description.hashCode();
+    }
+
+    private enum Fraction {
+        NONE,
+        FIXED,
+        ISO,
+        UNCACHED
+    }
+
+    private static final class Second {
+        private final long epochSecond;
+        private final String prefix;
+        private final String suffix;
+
+        private Second(long epochSecond, String prefix, String suffix) {
+            this.epochSecond = epochSecond;
+            this.prefix = prefix;
+            this.suffix = suffix;
+        }
     }
 }
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferTest {
+    private RingBuffer<Integer> buffer;
+
+    @BeforeEach
+    void init() {
+        buffer = new RingBuffer<>(4);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {-1, 0, 3, 6})
+    void badCapacity(int capacity) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(capacity));
+        assertEquals("capacity must be a positive power of two.", e.getMessage());
+    }
+
+    @Test
+    void offerUntilFull() {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+    }
+
+    @Test
+    void pollInOrder() {
+        assertNull(buffer.poll());
+        for (int lap = 0; lap < 3; lap++) {
+            for (int i = 0; i < 4; i++) {
+                buffer.offer(i);
+            }
+            for (int i = 0; i < 4; i++) {
+                assertEquals(i, buffer.poll());
+            }
+            assertTrue(buffer.isEmpty());
+        }
+    }
+
+    @Test
+    void concurrentProducers() throws InterruptedException {
+        Thread[] producers = new Thread[3];
+        for (int i = 0; i < producers.length; i++) {
+            producers[i] = new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    while (!buffer.offer(j)) Thread.yield();
+                }
+            });
+            producers[i].start();
+        }
+        long sum = 0;
+        for (int received = 0; received < producers.length * 1000; ) {
+            Integer element = buffer.poll();
+            if (element == null) {
+                Thread.yield();
+            } else {
+                sum += element;
+                received++;
+            }
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        assertEquals(producers.length * 999 * 1000 / 2, sum);
+    }
+}
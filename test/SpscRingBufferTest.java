@@ -0,0 +1,61 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpscRingBufferTest {
+    private SpscRingBuffer<Integer> buffer;
+
+    @BeforeEach
+    void init() {
+        buffer = new SpscRingBuffer<>(4);
+    }
+
+    @Test
+    void offerUntilFull() {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(0, buffer.poll());
+        assertTrue(buffer.offer(4));
+    }
+
+    @Test
+    void producerAndConsumer() throws InterruptedException {
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 10_000; i++) {
+                while (!buffer.offer(i)) Thread.yield();
+            }
+        });
+        producer.start();
+        for (int i = 0; i < 10_000; ) {
+            Integer element = buffer.poll();
+            if (element == null) {
+                Thread.yield();
+            } else {
+                assertEquals(i++, element);
+            }
+        }
+        producer.join();
+        assertTrue(buffer.isEmpty());
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StringFormatTest {
+    @Test
+    void fill() {
+        assertEquals("app-1.log", new StringFormat("{NAME}-{ID}.log").fill("name", "app").fill("id", 1).toString());
+    }
+
+    @Test
+    void compile() {
+        StringFormat.Template template = new StringFormat("{NAME}-{ID}-{NAME}.log").compile();
+        assertEquals("app-1-app.log", template.bind().fill("name", "app").fill("id", 1).toString());
+        assertEquals("app-2-app.log", template.bind().fill("name", "app").fill("id", 2).toString());
+    }
+
+    @Test
+    void unboundPlaceholders() {
+        StringFormat.Template template = new StringFormat("{ID}.log {unclosed").compile();
+        assertEquals("{ID}.log {unclosed", template.bind().toString());
+        assertEquals("{ID}.log {unclosed", template.bind().fill("other", 1).toString());
+    }
+
+    @Test
+    void compileAfterFill() {
+        StringFormat.Template template = new StringFormat("{TIMESTAMP}-{ID}").fill("timestamp", "now").compile();
+        assertEquals("now-3", template.bind().fill("id", 3).toString());
+    }
+
+    @Test
+    void nestedPlaceholders() {
+        String format = "{a{ELAPSED}} {{ID}";
+        assertEquals("{a5} {1", new StringFormat(format).fill("elapsed", 5).fill("id", 1).toString());
+        assertEquals("{a5} {1", new StringFormat(format).compile().bind().fill("elapsed", 5).fill("id", 1).toString());
+    }
+
+    @Test
+    void compilePendingSuppliers() {
+        StringFormat format = new StringFormat("{ID}").set("id", () -> 1);
+        IllegalStateException e = assertThrows(IllegalStateException.class, format::compile);
+        assertEquals("Value suppliers found. Use #toString() or #evaluateToString() before compiling.", e.getMessage());
+        assertEquals("1", format.toString());
+        assertEquals("1", format.compile().bind().toString());
+    }
+
+    @Test
+    void delimiters() {
+        StringFormat.Template template = new StringFormat("<ID>.log").delimiters('<', '>').compile();
+        assertEquals("7.log", template.bind().fill("id", 7).toString());
+    }
+}
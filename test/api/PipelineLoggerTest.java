@@ -17,6 +17,7 @@
 package eu.menzani.logger.api;
 
 import eu.menzani.logger.impl.Pipeline;
+import eu.menzani.logger.impl.StandardLevel;
 import eu.menzani.logger.impl.SynchronousLogger;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -25,8 +26,7 @@ import org.junit.jupiter.api.Test;
 import java.util.NoSuchElementException;
 import java.util.UUID;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.*;
 
 class PipelineLoggerTest {
     private PipelineLogger logger;
@@ -45,4 +45,20 @@ class PipelineLoggerTest {
         logger.addPipeline(pipeline).addPipeline(new Pipeline());
         Assertions.assertEquals(pipeline, logger.getPipeline(name));
     }
-}
\ No newline at end of file
+
+    @Test
+    void isEnabled() {
+        assertFalse(logger.isEnabled(StandardLevel.FATAL));
+        Pipeline pipeline = new Pipeline().setVerbosity(StandardLevel.INFORMATION);
+        logger.addPipeline(pipeline);
+        assertTrue(logger.isEnabled(StandardLevel.INFORMATION));
+        assertFalse(logger.isEnabled(StandardLevel.FINE));
+        logger.addPipeline(new Pipeline().setVerbosity(StandardLevel.DEBUG));
+        assertTrue(logger.isEnabled(StandardLevel.DEBUG));
+        assertFalse(logger.isEnabled(StandardLevel.TRACE));
+        logger.setPipelines(pipeline);
+        assertFalse(logger.isEnabled(StandardLevel.DEBUG));
+        pipeline.disable();
+        assertFalse(logger.isEnabled(StandardLevel.FATAL));
+    }
+}
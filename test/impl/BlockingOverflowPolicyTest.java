@@ -0,0 +1,87 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import eu.menzani.logger.RingBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockingOverflowPolicyTest {
+    private RingBuffer<LogEntry> buffer;
+    private LogEntry first;
+    private LogEntry second;
+    private LogEntry third;
+
+    @BeforeEach
+    void init() {
+        buffer = new RingBuffer<>(2);
+        first = new LogEntry(StandardLevel.INFORMATION, "first", null);
+        second = new LogEntry(StandardLevel.INFORMATION, "second", null);
+        third = new LogEntry(StandardLevel.INFORMATION, "third", null);
+        buffer.offer(first);
+        buffer.offer(second);
+    }
+
+    @Test
+    void badSpins() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> new BlockingOverflowPolicy(-1));
+        assertEquals("spins must not be negative.", e.getMessage());
+    }
+
+    @Test
+    void blockUntilSpace() throws InterruptedException {
+        BlockingOverflowPolicy policy = new BlockingOverflowPolicy(16);
+        Thread producer = startOverflow(policy, new AtomicReference<>());
+        Thread.sleep(50L);
+        assertTrue(producer.isAlive());
+        assertSame(first, buffer.poll());
+        producer.join();
+        assertSame(second, buffer.poll());
+        assertSame(third, buffer.poll());
+        assertEquals(1, policy.getBlockedCount());
+        assertEquals(0, policy.getDroppedCount());
+    }
+
+    @Test
+    void interrupt() throws InterruptedException {
+        BlockingOverflowPolicy policy = new BlockingOverflowPolicy();
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        Thread producer = startOverflow(policy, thrown);
+        producer.interrupt();
+        producer.join();
+        assertTrue(thrown.get() instanceof InterruptedException);
+        assertSame(first, buffer.poll());
+        assertSame(second, buffer.poll());
+        assertNull(buffer.poll());
+    }
+
+    private Thread startOverflow(BlockingOverflowPolicy policy, AtomicReference<Throwable> thrown) {
+        Thread producer = new Thread(() -> {
+            try {
+                policy.overflow(buffer, third);
+            } catch (Throwable e) {
+                thrown.set(e);
+            }
+        });
+        producer.start();
+        return producer;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachedClockTest {
+    @Test
+    void nanos() {
+        try (CachedClock clock = new CachedClock()) {
+            long difference = SystemEpochClock.instance.nanos() - clock.nanos();
+            assertTrue(difference < TimeUnit.SECONDS.toNanos(1), Long.toString(difference));
+        }
+    }
+
+    @Test
+    void now() {
+        try (CachedClock clock = new CachedClock()) {
+            LocalDateTime now = (LocalDateTime) clock.now();
+            assertTrue(now.until(LocalDateTime.now(), ChronoUnit.SECONDS) < 1L, now.toString());
+        }
+    }
+
+    @Test
+    void interpolated() {
+        try (CachedClock clock = new CachedClock(1, TimeUnit.SECONDS, true)) {
+            long first = clock.nanos();
+            long second = clock.nanos();
+            assertTrue(second >= first);
+        }
+    }
+
+    @Test
+    void interpolationStopsAtNextTick() throws InterruptedException {
+        CachedClock clock = new CachedClock(10, TimeUnit.MILLISECONDS, true);
+        clock.close();
+        Thread.sleep(50L);
+        long first = clock.nanos();
+        Thread.sleep(50L);
+        assertEquals(first, clock.nanos());
+        assertTrue(first <= SystemEpochClock.instance.nanos());
+    }
+
+    @Test
+    void badResolution() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> new CachedClock(0, TimeUnit.MILLISECONDS, false));
+        assertEquals("resolution must be positive.", e.getMessage());
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CostModelTest {
+    private CostModel costModel;
+    private Object component;
+
+    @BeforeEach
+    void init() {
+        costModel = new CostModel(1, TimeUnit.MILLISECONDS);
+        component = new Object();
+    }
+
+    @Test
+    void unmeasuredComponentIsInlined() {
+        assertTrue(costModel.isInlined(component));
+        assertEquals(OptionalLong.empty(), costModel.getAverageCostNanos(component));
+    }
+
+    @Test
+    void cheapComponentIsInlined() throws Exception {
+        assertEquals(component, costModel.call(component, () -> component));
+        assertTrue(costModel.isInlined(component));
+        assertTrue(costModel.getAverageCostNanos(component).isPresent());
+    }
+
+    @Test
+    void expensiveComponentIsForked() throws Exception {
+        costModel.call(component, () -> {
+            Thread.sleep(5);
+            return null;
+        });
+        assertFalse(costModel.isInlined(component));
+        assertTrue(costModel.getAverageCostsNanos().get(component) >= TimeUnit.MILLISECONDS.toNanos(5));
+        costModel.setInlineThreshold(1, TimeUnit.SECONDS);
+        assertTrue(costModel.isInlined(component));
+    }
+
+    @Test
+    void reset() throws Exception {
+        costModel.call(component, () -> null);
+        costModel.reset();
+        assertEquals(OptionalLong.empty(), costModel.getAverageCostNanos(component));
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import eu.menzani.logger.RingBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DropBelowLevelOverflowPolicyTest {
+    private LogEntryPool pool;
+    private RingBuffer<LogEntry> buffer;
+    private LogEntry first;
+    private LogEntry second;
+    private DropBelowLevelOverflowPolicy policy;
+
+    @BeforeEach
+    void init() {
+        pool = new LogEntryPool(4);
+        buffer = new RingBuffer<>(2);
+        first = pool.acquire(StandardLevel.INFORMATION, "first", null);
+        second = pool.acquire(StandardLevel.INFORMATION, "second", null);
+        buffer.offer(first);
+        buffer.offer(second);
+        policy = new DropBelowLevelOverflowPolicy(StandardLevel.INFORMATION, new DropOldestOverflowPolicy());
+    }
+
+    @Test
+    void dropMoreVerbose() throws InterruptedException {
+        policy.overflow(buffer, pool.acquire(StandardLevel.DEBUG, "debug", null));
+        assertEquals(1, policy.getDroppedCount());
+        assertEquals(0, policy.getFallback().getDroppedCount());
+        assertEquals(2, pool.getAvailable());
+        assertSame(first, buffer.poll());
+        assertSame(second, buffer.poll());
+    }
+
+    @Test
+    void delegateOthers() throws InterruptedException {
+        LogEntry warning = pool.acquire(StandardLevel.WARNING, "warning", null);
+        LogEntry information = pool.acquire(StandardLevel.INFORMATION, "information", null);
+        policy.overflow(buffer, warning);
+        policy.overflow(buffer, information);
+        assertEquals(2, policy.getDroppedCount());
+        assertEquals(2, policy.getFallback().getDroppedCount());
+        assertEquals(2, pool.getAvailable());
+        assertSame(warning, buffer.poll());
+        assertSame(information, buffer.poll());
+    }
+
+    @Test
+    void defaultFallback() {
+        assertTrue(new DropBelowLevelOverflowPolicy(StandardLevel.INFORMATION).getFallback() instanceof BlockingOverflowPolicy);
+    }
+}
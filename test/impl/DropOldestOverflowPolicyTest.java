@@ -0,0 +1,43 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import eu.menzani.logger.RingBuffer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DropOldestOverflowPolicyTest {
+    @Test
+    void dropOldest() {
+        LogEntryPool pool = new LogEntryPool(4);
+        RingBuffer<LogEntry> buffer = new RingBuffer<>(2);
+        buffer.offer(pool.acquire(StandardLevel.INFORMATION, "first", null));
+        buffer.offer(pool.acquire(StandardLevel.INFORMATION, "second", null));
+        LogEntry third = pool.acquire(StandardLevel.INFORMATION, "third", null);
+        LogEntry fourth = pool.acquire(StandardLevel.INFORMATION, "fourth", null);
+
+        DropOldestOverflowPolicy policy = new DropOldestOverflowPolicy();
+        policy.overflow(buffer, third);
+        policy.overflow(buffer, fourth);
+        assertEquals(2, policy.getDroppedCount());
+        assertEquals(2, pool.getAvailable());
+        assertSame(third, buffer.poll());
+        assertSame(fourth, buffer.poll());
+        assertNull(buffer.poll());
+    }
+}
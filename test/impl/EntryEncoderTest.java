@@ -0,0 +1,73 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+class EntryEncoderTest {
+    @Test
+    void ascii() {
+        assertEncoded(StandardCharsets.UTF_8, "INFO message");
+    }
+
+    @Test
+    void nonAscii() {
+        assertEncoded(StandardCharsets.UTF_8, "INFO caff\u00e8 \u20ac \ud83d\ude00");
+        assertEncoded(StandardCharsets.ISO_8859_1, "INFO caff\u00e8");
+        assertEncoded(StandardCharsets.UTF_16BE, "INFO message");
+    }
+
+    @Test
+    void growing() {
+        assertEncoded(StandardCharsets.UTF_8, "x".repeat(100_000));
+        assertEncoded(StandardCharsets.UTF_8, "\u20ac".repeat(100_000));
+    }
+
+    @Test
+    void direct() {
+        EntryEncoder encoder = new EntryEncoder(StandardCharsets.UTF_8, true);
+        ByteBuffer buffer = encoder.encode("message");
+        assertEquals(true, buffer.isDirect());
+        encoder.release(buffer);
+    }
+
+    @Test
+    void nestedEncode() {
+        EntryEncoder encoder = new EntryEncoder(StandardCharsets.UTF_8, false);
+        ByteBuffer first = encoder.encode("first");
+        ByteBuffer second = encoder.encode("second");
+        assertNotSame(first, second);
+        assertEquals("first" + System.lineSeparator(), StandardCharsets.UTF_8.decode(first).toString());
+        encoder.release(second);
+        encoder.release(first);
+    }
+
+    private static void assertEncoded(Charset charset, String entry) {
+        EntryEncoder encoder = new EntryEncoder(charset, false);
+        ByteBuffer buffer = encoder.encode(entry);
+        ByteBuffer expected = charset.encode(entry + System.lineSeparator());
+        assertEquals(expected, buffer);
+        encoder.release(buffer);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import eu.menzani.logger.api.LoggerException;
+import eu.menzani.logger.api.PipelineLogger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class FileConsumerTest {
+    @TempDir
+    Path folder;
+    private Path file;
+    private FileConsumer consumer;
+    private PipelineLogger logger;
+
+    @BeforeEach
+    void setUp() {
+        file = folder.resolve("log.txt");
+        consumer = new FileConsumer(file, 1024);
+        logger = new SynchronousLogger()
+                .setExceptionHandler(new ThrowingExceptionHandler())
+                .addPipeline(new Pipeline().addConsumer(consumer));
+    }
+
+    @Test
+    void defaultPolicy() throws IOException {
+        logger.info("first");
+        assertEquals(List.of("first"), Files.readAllLines(file));
+        logger.info("second");
+        assertEquals(List.of("first", "second"), Files.readAllLines(file));
+    }
+
+    @Test
+    void explicitFlush() throws IOException {
+        consumer.setFlushPolicy(new FlushPolicy());
+        logger.info("message");
+        assertEquals(0, Files.size(file));
+        consumer.flush();
+        assertEquals(List.of("message"), Files.readAllLines(file));
+    }
+
+    @Test
+    void flushOnError() throws IOException {
+        consumer.setFlushPolicy(new FlushPolicy().setFlushOnError(true));
+        logger.info("first");
+        assertEquals(0, Files.size(file));
+        logger.fail("second");
+        assertEquals(List.of("first", "second"), Files.readAllLines(file));
+    }
+
+    @Test
+    void maximumBytes() throws IOException {
+        consumer.setFlushPolicy(new FlushPolicy().setMaximumBytes(10));
+        logger.info("12345");
+        assertEquals(0, Files.size(file));
+        logger.info("67890");
+        assertEquals(List.of("12345", "67890"), Files.readAllLines(file));
+        assertEquals(1, consumer.getFlushCount());
+    }
+
+    @Test
+    void oversizedEntry() throws IOException {
+        consumer.setFlushPolicy(new FlushPolicy());
+        String oversized = "x".repeat(2000);
+        logger.info("small");
+        logger.info(oversized);
+        assertEquals(List.of("small", oversized), Files.readAllLines(file));
+    }
+
+    @Test
+    void interruptedThread() throws IOException {
+        logger.info("before");
+        Thread.currentThread().interrupt();
+        logger.info("interrupted");
+        assertTrue(Thread.interrupted());
+        logger.info("after");
+        assertEquals(List.of("before", "interrupted", "after"), Files.readAllLines(file));
+        consumer.close();
+    }
+
+    @Test
+    void failedBackgroundFlush() throws IOException {
+        Path full = Path.of("/dev/full");
+        assumeTrue(Files.isWritable(full));
+        FileConsumer consumer = new FileConsumer(full, 1024)
+                .setFlushPolicy(new FlushPolicy());
+        PipelineLogger logger = new SynchronousLogger()
+                .setExceptionHandler(new ThrowingExceptionHandler())
+                .addPipeline(new Pipeline().addConsumer(consumer));
+        logger.info("first");
+        FileConsumer.flushOpenConsumers();
+        LoggerException e = assertThrows(LoggerException.class, () -> logger.info("second"));
+        assertTrue(e.getCause() instanceof IOException);
+        assertThrows(IOException.class, consumer::close);
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogEntryPoolTest {
+    private LogEntryPool pool;
+
+    @BeforeEach
+    void init() {
+        pool = new LogEntryPool(2);
+    }
+
+    @Test
+    void recycle() throws EvaluationException {
+        LogEntry entry = pool.acquire(StandardLevel.INFORMATION, "message", null);
+        assertEquals(1, pool.getAvailable());
+        entry.retain();
+        entry.release();
+        assertEquals(1, pool.getAvailable());
+        entry.release();
+        assertEquals(2, pool.getAvailable());
+
+        LogEntry reused = pool.acquire(StandardLevel.DEBUG, null, () -> "lazy");
+        reused.setTimestamp(LocalDateTime.now());
+        assertEquals(StandardLevel.DEBUG, reused.getLevel());
+        assertEquals("lazy", reused.getMessage());
+        reused.release();
+        LogEntry cleared = pool.acquire(StandardLevel.INFORMATION, "message", null);
+        assertThrows(IllegalStateException.class, cleared::getTimestamp);
+    }
+
+    @Test
+    void miss() {
+        pool.acquire(StandardLevel.INFORMATION, "message", null);
+        pool.acquire(StandardLevel.INFORMATION, "message", null);
+        assertEquals(0, pool.getMissCount());
+        pool.acquire(StandardLevel.INFORMATION, "message", null);
+        assertEquals(1, pool.getMissCount());
+    }
+}
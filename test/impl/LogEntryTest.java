@@ -0,0 +1,65 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LogEntryTest {
+    private LogEntry entry;
+
+    @BeforeEach
+    void init() {
+        entry = new LogEntry(StandardLevel.INFORMATION, "message", null);
+    }
+
+    @Test
+    void timestampNanos() {
+        entry.setTimestamp(1_000_000_123L);
+        assertEquals(1_000_000_123L, entry.getTimestampNanos());
+        assertEquals(Instant.ofEpochSecond(1L, 123L), entry.getInstant());
+        assertEquals(LocalDateTime.ofInstant(Instant.ofEpochSecond(1L, 123L), ZoneId.systemDefault()), entry.getTimestamp());
+    }
+
+    @Test
+    void temporalTimestamp() {
+        LocalDateTime timestamp = LocalDateTime.of(2020, 1, 2, 3, 4, 5, 6);
+        entry.setTimestamp(timestamp);
+        assertEquals(timestamp, entry.getTimestamp());
+        assertEquals(timestamp.atZone(ZoneId.systemDefault()).toInstant(), entry.getInstant());
+    }
+
+    @Test
+    void timestampNotSet() {
+        IllegalStateException e = assertThrows(IllegalStateException.class, entry::getTimestampNanos);
+        assertEquals("Timestamp was not set.", e.getMessage());
+    }
+
+    @Test
+    void timestampAlreadySet() {
+        entry.setTimestamp(0L);
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> entry.setTimestamp(LocalDateTime.now()));
+        assertEquals("Timestamp already set.", e.getMessage());
+    }
+}
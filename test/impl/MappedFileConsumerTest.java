@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import eu.menzani.logger.api.PipelineLogger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedFileConsumerTest {
+    @TempDir
+    Path folder;
+
+    @Test
+    void entriesSpanningChunks() throws IOException {
+        Path file = folder.resolve("log.txt");
+        MappedFileConsumer consumer = new MappedFileConsumer(file, 16);
+        PipelineLogger logger = newLogger(consumer);
+        logger.info("first entry");
+        logger.info("a longer second entry");
+        consumer.close();
+        assertEquals(List.of("first entry", "a longer second entry"), Files.readAllLines(file));
+        assertEquals(consumer.getLength(), Files.size(file));
+    }
+
+    @Test
+    void skipsZerosOfUnclosedFile() throws IOException {
+        Path file = folder.resolve("log.txt");
+        Files.write(file, new byte[]{'a', '\n', 0, 0, 0, 0});
+        MappedFileConsumer consumer = new MappedFileConsumer(file, 16);
+        newLogger(consumer).info("b");
+        consumer.close();
+        assertEquals(List.of("a", "b"), Files.readAllLines(file));
+    }
+
+    @Test
+    void interruptedThread() throws IOException {
+        Path file = folder.resolve("log.txt");
+        MappedFileConsumer consumer = new MappedFileConsumer(file, 16);
+        PipelineLogger logger = newLogger(consumer);
+        logger.info("first entry");
+        Thread.currentThread().interrupt();
+        logger.info("crosses the chunk boundary");
+        assertTrue(Thread.interrupted());
+        logger.info("after");
+        consumer.close();
+        assertEquals(List.of("first entry", "crosses the chunk boundary", "after"), Files.readAllLines(file));
+    }
+
+    @Test
+    void closedOnShutdown() throws IOException {
+        Path file = folder.resolve("log.txt");
+        MappedFileConsumer consumer = new MappedFileConsumer(file, 1024);
+        newLogger(consumer).info("message");
+        MappedFileConsumer.closeOpenConsumers();
+        assertEquals(List.of("message"), Files.readAllLines(file));
+        assertEquals(consumer.getLength(), Files.size(file));
+    }
+
+    @Test
+    void closed() throws IOException {
+        MappedFileConsumer consumer = new MappedFileConsumer(folder.resolve("log.txt"));
+        consumer.close();
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> consumer.consume(new LogEntry(StandardLevel.INFORMATION, "message", null), "message"));
+        assertEquals("Consumer is closed.", e.getMessage());
+    }
+
+    private static PipelineLogger newLogger(MappedFileConsumer consumer) {
+        return new SynchronousLogger()
+                .setExceptionHandler(new ThrowingExceptionHandler())
+                .addPipeline(new Pipeline().addConsumer(consumer));
+    }
+}
@@ -17,10 +17,14 @@
 package eu.menzani.logger.impl;
 
 import eu.menzani.logger.api.Formatter;
+import eu.menzani.logger.api.MessageNormalizer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class MessageFormatterTest {
     private Formatter formatter;
@@ -38,6 +42,45 @@ class MessageFormatterTest {
         assertEquals(normalized, normalize("Hello%nHello"));
     }
 
+    @Test
+    void unchangedMessage() throws Exception {
+        String message = "Hello % \r world";
+        assertSame(message, normalize(message));
+    }
+
+    @Test
+    void jsonNormalizer() throws Exception {
+        formatter = new MessageFormatter(JsonNormalizer.instance);
+        assertEquals("a\\nb\\nc\\nd", normalize("a\r\nb\nc%nd"));
+        assertEquals("\\\"quoted\\\" \\\\ \\t\\u0001", normalize("\"quoted\" \\ \t\u0001"));
+    }
+
+    @Test
+    void formatTo() throws Exception {
+        StringBuilder builder = new StringBuilder("> ");
+        assertTrue(new MessageFormatter().formatTo(new LogEntry(null, 42, null), builder));
+        assertEquals("> 42", builder.toString());
+    }
+
+    @Test
+    void failingNormalizer() {
+        StringBuilder buffer = ProducerView.acquireBuffer();
+        ProducerView.releaseBuffer(buffer);
+        formatter = new MessageFormatter(new MessageNormalizer() {
+            @Override
+            public int indexOfNext(CharSequence text, int from) {
+                return from;
+            }
+
+            @Override
+            public int replace(CharSequence text, int index, StringBuilder builder) {
+                throw new IllegalStateException();
+            }
+        });
+        assertThrows(IllegalStateException.class, () -> normalize("message"));
+        assertSame(buffer, ProducerView.acquireBuffer());
+    }
+
     private String normalize(String message) throws Exception {
         return formatter.format(new LogEntry(null, message, null));
     }
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageTemplateTest {
+    @Test
+    void compile() {
+        MessageTemplate template = MessageTemplate.compile("Hello {} and {}!", "{}");
+        assertEquals(2, template.getSlotCount());
+        assertEquals("Hello ", template.getLiteral(0));
+        assertEquals(" and ", template.getLiteral(1));
+        assertEquals("!", template.getLiteral(2));
+        assertEquals(12, template.getLength());
+    }
+
+    @Test
+    void customMarker() {
+        MessageTemplate template = MessageTemplate.compile("%s%s", "%s");
+        assertEquals(2, template.getSlotCount());
+        assertEquals("", template.getLiteral(1));
+    }
+
+    @Test
+    void cache() {
+        String pattern = UUID.randomUUID() + " {}";
+        assertSame(MessageTemplate.of(pattern, "{}"), MessageTemplate.of(pattern, "{}"));
+        assertNotSame(MessageTemplate.of(pattern, "{}"), MessageTemplate.of(pattern, "%s"));
+    }
+
+    @Test
+    void boundedCache() {
+        for (int i = 0; i <= MessageTemplate.cacheCapacity; i++) {
+            MessageTemplate.of(Integer.toString(i), "<bounded>");
+        }
+        assertEquals(MessageTemplate.cacheCapacity, MessageTemplate.getCacheSize("<bounded>"));
+    }
+}
@@ -17,13 +17,20 @@
 package eu.menzani.logger.impl;
 
 import eu.menzani.logger.api.AbstractLoggerTest;
+import eu.menzani.logger.api.LoggerException;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 import java.util.stream.Stream;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 class ParallelLoggerTest extends AbstractLoggerTest {
     @Override
@@ -61,6 +68,250 @@ class ParallelLoggerTest extends AbstractLoggerTest {
         );
     }
 
+    @Test
+    void batching() throws InterruptedException {
+        BufferConsumer consumer = new BufferConsumer();
+        ParallelLogger logger = new ParallelLogger()
+                .setBatching(16, 100, TimeUnit.MICROSECONDS)
+                .addPipeline(new Pipeline().addConsumer(consumer))
+                .setDefaultParallelism();
+        for (int i = 0; i < 100; i++) {
+            logger.info("{}", i);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Integer.toString(i), consumer.nextEntry());
+        }
+    }
+
+    @Test
+    void badBatchSize() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> new ParallelLogger().setBatching(0, 0, TimeUnit.MICROSECONDS));
+        assertEquals("size must be positive.", e.getMessage());
+    }
+
+    @Test
+    void sharding() throws InterruptedException {
+        BufferConsumer consumer = new BufferConsumer();
+        Shard shard = new Shard(16, 1, new BlockingOverflowPolicy());
+        ParallelLogger logger = new ParallelLogger()
+                .addPipeline(new Pipeline().setShard(shard).addConsumer(consumer))
+                .setDefaultParallelism();
+        for (int i = 0; i < 100; i++) {
+            logger.info("{}", i);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Integer.toString(i), consumer.nextEntry());
+        }
+        assertEquals(0, shard.getDroppedCount());
+    }
+
+    @Test
+    void blockedShard() throws InterruptedException {
+        CountDownLatch unblocked = new CountDownLatch(1);
+        BufferConsumer blockedConsumer = new BufferConsumer();
+        BufferConsumer consumer = new BufferConsumer();
+        Shard shard = new Shard(2);
+        ParallelLogger logger = new ParallelLogger()
+                .addPipeline(new Pipeline().setShard(shard)
+                        .addConsumer((entry, formattedEntry) -> {
+                            unblocked.await();
+                            blockedConsumer.consume(entry, formattedEntry);
+                        }))
+                .addPipeline(new Pipeline().addConsumer(consumer))
+                .setDefaultParallelism();
+        for (int i = 0; i < 100; i++) {
+            logger.info("{}", i);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Integer.toString(i), consumer.nextEntry());
+        }
+        unblocked.countDown();
+        logger.close();
+        assertEquals("0", blockedConsumer.nextEntry());
+        assertTrue(shard.getDroppedCount() > 0);
+        assertEquals(100, shard.getProcessedCount() + shard.getDroppedCount());
+    }
+
+    @Test
+    void cancelledTaskRetainsEntry() throws InterruptedException {
+        LogEntryPool entryPool = new LogEntryPool(2);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        List<Object> messages = new CopyOnWriteArrayList<>();
+        ParallelLogger logger = new ParallelLogger()
+                .addPipeline(new Pipeline()
+                        .addFilter(entry -> {
+                            entered.await();
+                            return true;
+                        })
+                        .addFilter(entry -> {
+                            entered.countDown();
+                            while (proceed.getCount() != 0) { // Interrupts by cancellation are ignored
+                                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                            }
+                            messages.add(entry.getMessage());
+                            return false;
+                        }))
+                .setDefaultParallelism();
+        logger.setEntryPool(entryPool);
+        logger.info("message");
+        entered.await();
+        Thread.sleep(100L);
+        assertEquals(1, entryPool.getAvailable());
+        proceed.countDown();
+        logger.close();
+        while (entryPool.getAvailable() == 1) {
+            Thread.sleep(10L);
+        }
+        assertEquals(List.of("message"), messages);
+    }
+
+    @Test
+    void interruptedOverflowReleasesEntry() throws InterruptedException {
+        LogEntryPool entryPool = new LogEntryPool(8);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        ParallelLogger logger = new ParallelLogger()
+                .setCapacity(2)
+                .setOverflowPolicy(new BlockingOverflowPolicy())
+                .addPipeline(new Pipeline()
+                        .addFilter(entry -> {
+                            entered.countDown();
+                            proceed.await();
+                            return true;
+                        }))
+                .setDefaultParallelism();
+        logger.setExceptionHandler(exception -> {
+        });
+        logger.setEntryPool(entryPool);
+        try {
+            logger.info("processing");
+            entered.await();
+            logger.info("queued");
+            logger.info("queued");
+            assertEquals(5, entryPool.getAvailable());
+            Thread.currentThread().interrupt();
+            logger.info("interrupted");
+            assertTrue(Thread.interrupted());
+            assertEquals(5, entryPool.getAvailable());
+        } finally {
+            proceed.countDown();
+            logger.close();
+        }
+    }
+
+    @Test
+    void callerThreadTimestamp() throws InterruptedException {
+        BufferConsumer consumer = new BufferConsumer();
+        ParallelLogger logger = new ParallelLogger()
+                .setEpochClock(() -> Thread.currentThread().getId())
+                .addPipeline(new Pipeline()
+                        .addConsumer((entry, formattedEntry) -> consumer.consume(entry, Long.toString(entry.getTimestampNanos()))))
+                .setDefaultParallelism();
+        logger.info("message");
+        assertEquals(Long.toString(Thread.currentThread().getId()), consumer.nextEntry());
+        assertEquals(1, logger.getQueueLatency().getCount());
+    }
+
+    @Test
+    void stagedShard() {
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> new Pipeline().setStaged(true).setShard(new Shard()));
+        assertEquals("Pipeline cannot be both staged and sharded.", e.getMessage());
+    }
+
+    @Test
+    void stagedOrder() throws InterruptedException {
+        BufferConsumer consumer = new BufferConsumer();
+        ParallelLogger logger = new ParallelLogger()
+                .addPipeline(new Pipeline().setStaged(true).setVerbosity(StandardLevel.INFORMATION).addConsumer(consumer))
+                .setDefaultParallelism();
+        for (int i = 0; i < 1000; i++) {
+            logger.info("{}", i);
+            logger.fine("{}", i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Integer.toString(i), consumer.nextEntry());
+        }
+    }
+
+    @Test
+    void stagedShutdown() throws InterruptedException {
+        long stageCount = countStageThreads();
+        BufferConsumer consumer = new BufferConsumer();
+        ParallelLogger logger = new ParallelLogger()
+                .addPipeline(new Pipeline().setStaged(true).addConsumer(consumer))
+                .setDefaultParallelism();
+        for (int i = 0; i < 1000; i++) {
+            logger.info("{}", i);
+        }
+        logger.close();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Integer.toString(i), consumer.nextEntry());
+        }
+        awaitStageThreads(stageCount);
+    }
+
+    @Test
+    void stagedPipelineRemoval() throws InterruptedException {
+        long stageCount = countStageThreads();
+        BufferConsumer consumer = new BufferConsumer();
+        ParallelLogger logger = new ParallelLogger()
+                .addPipeline(new Pipeline().setStaged(true).addConsumer(consumer))
+                .setDefaultParallelism();
+        logger.info("message");
+        assertEquals("message", consumer.nextEntry());
+        assertEquals(stageCount + 3, countStageThreads());
+        logger.setPipelines(new Pipeline());
+        awaitStageThreads(stageCount);
+        logger.close();
+    }
+
+    @Test
+    void stagedFailure() throws InterruptedException {
+        LogEntryPool entryPool = new LogEntryPool(4);
+        List<LoggerException> exceptions = new CopyOnWriteArrayList<>();
+        BufferConsumer consumer = new BufferConsumer();
+        ParallelLogger logger = new ParallelLogger()
+                .setExceptionHandler(exception -> {
+                    exceptions.add(exception);
+                    throw exception;
+                })
+                .addPipeline(new Pipeline().setStaged(true)
+                        .addConsumer((entry, formattedEntry) -> {
+                            if (formattedEntry.equals("bad")) throw new IllegalStateException();
+                        })
+                        .addConsumer(consumer))
+                .setDefaultParallelism();
+        logger.setEntryPool(entryPool);
+        logger.info("bad");
+        logger.info("good");
+        String formattedEntry = consumer.nextEntry();
+        if (formattedEntry.equals("bad")) { // Consumers run in no particular order
+            formattedEntry = consumer.nextEntry();
+        }
+        assertEquals("good", formattedEntry);
+        logger.close();
+        assertEquals(1, exceptions.size());
+        assertTrue(exceptions.get(0).getCause() instanceof IllegalStateException);
+        assertEquals(4, entryPool.getAvailable());
+    }
+
+    private static long countStageThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().endsWith(" stage"))
+                .count();
+    }
+
+    private static void awaitStageThreads(long expectedCount) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (countStageThreads() != expectedCount) {
+            assertTrue(System.nanoTime() < deadline);
+            Thread.sleep(10L);
+        }
+    }
+
     private static Object[] arrayOf(Pipeline... pipelines) {
         return pipelines;
     }
@@ -92,4 +92,33 @@ class ParameterizedMessageTest {
                 () -> new ParameterizedMessage("Hello {}!", (Object) null).with(() -> arg0, () -> arg1));
         assertEquals("Too many arguments.", e.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    void primitiveArguments() throws Exception {
+        assertEquals("Count: -7.", new ParameterizedMessage("Count: {}.", -7).evaluate().toString());
+        assertEquals("Latency: 9223372036854775807", new ParameterizedMessage("Latency: {}", Long.MAX_VALUE).evaluate().toString());
+        assertEquals("Ratio: 0.25", new ParameterizedMessage("Ratio: {}", 0.25).evaluate().toString());
+        assertEquals("Flag: true", new ParameterizedMessage("Flag: {}", true).evaluate().toString());
+        assertEquals("Char: x", new ParameterizedMessage("Char: {}", 'x').evaluate().toString());
+    }
+
+    @Test
+    void tooFewPrimitiveArguments() {
+        message = new ParameterizedMessage("Hello {} {}!", 1);
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> message.evaluate());
+        assertEquals("Could not produce parameterized message: too few arguments.", e.getMessage());
+    }
+
+    @Test
+    void customMarker() throws Exception {
+        message = new ParameterizedMessage("Hello %s!", 42L).marker("%s");
+        assertEquals("Hello 42!", message.evaluate().toString());
+    }
+
+    @Test
+    void emptyMarker() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> new ParameterizedMessage("Hello {}!", 1).marker(""));
+        assertEquals("marker must not be empty.", e.getMessage());
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import eu.menzani.logger.api.PipelineLogger;
+import eu.menzani.logger.api.RotationPolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoField;
+import java.time.temporal.Temporal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RotatingFileConsumerTest {
+    @TempDir
+    Path folder;
+
+    @Test
+    void sizeRotation() throws IOException {
+        RotatingFileConsumer consumer = new RotatingFileConsumer(folder)
+                .setPolicy(new SizeRotationPolicy("{ID}.log", 10));
+        log(consumer, "1234", "5678", "90");
+        consumer.close();
+        assertEquals(List.of("1234", "5678"), Files.readAllLines(folder.resolve("1.log")));
+        assertEquals(List.of("90"), Files.readAllLines(folder.resolve("2.log")));
+    }
+
+    @Test
+    void preallocation() throws Exception {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH-mm");
+        int maximumSize = 1 << 20;
+        RotatingFileConsumer consumer = new RotatingFileConsumer(folder)
+                .setPreallocated(true)
+                .setPreparationTime(1L, TimeUnit.HOURS)
+                .setPolicy(new HybridRotationPolicy("{TIMESTAMP} {ID}.log", formatter, 1, ChronoField.MINUTE_OF_HOUR, maximumSize));
+        LocalDateTime timestamp = LocalDateTime.now();
+        LocalDateTime nextTimestamp = timestamp.plusMinutes(1L);
+        Path file = folder.resolve(formatter.format(timestamp) + " 1.log");
+        Path upcomingFile = folder.resolve(formatter.format(nextTimestamp) + " 1.log");
+        consume(consumer, timestamp, "first");
+        while (Files.notExists(upcomingFile) || Files.size(upcomingFile) < maximumSize) {
+            Thread.sleep(10L);
+        }
+        assertEquals("first\n".length(), Files.size(file));
+        consume(consumer, nextTimestamp, "next");
+        consumer.close();
+        assertEquals(List.of("next"), Files.readAllLines(upcomingFile));
+    }
+
+    @Test
+    void preallocationRecovery() throws Exception {
+        Path file = folder.resolve("app.log");
+        Files.write(file, "old\n\0\0\0\0".getBytes(StandardCharsets.UTF_8));
+        RotatingFileConsumer consumer = new RotatingFileConsumer(folder)
+                .setPolicy(new RotationPolicy() {
+                    @Override
+                    public void initialize(Path root, Temporal timestamp) {
+                    }
+
+                    @Override
+                    public Path currentFile(Path root, Temporal timestamp) {
+                        return root.resolve("app.log");
+                    }
+                });
+        consume(consumer, LocalDateTime.now(), "new");
+        assertEquals("old\nnew\n", Files.readString(file));
+        consumer.close();
+    }
+
+    @Test
+    void interruptedThread() throws IOException {
+        RotatingFileConsumer consumer = new RotatingFileConsumer(folder)
+                .setPolicy(new SizeRotationPolicy("{ID}.log", 1024));
+        PipelineLogger logger = new SynchronousLogger()
+                .setExceptionHandler(new ThrowingExceptionHandler())
+                .addPipeline(new Pipeline().addConsumer(consumer));
+        logger.info("before");
+        Thread.currentThread().interrupt();
+        logger.info("interrupted");
+        assertTrue(Thread.interrupted());
+        logger.info("after");
+        consumer.close();
+        assertEquals(List.of("before", "interrupted", "after"), Files.readAllLines(folder.resolve("1.log")));
+    }
+
+    @Test
+    void interruptedWhileWriting() throws Exception {
+        RotatingFileConsumer consumer = new RotatingFileConsumer(folder)
+                .setPolicy(new SizeRotationPolicy("{ID}.log", Long.MAX_VALUE));
+        String message = "x".repeat(1 << 16);
+        int count = 200;
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            try {
+                for (int i = 0; i < count; i++) {
+                    consume(consumer, LocalDateTime.now(), message);
+                }
+            } catch (Exception e) {
+                failure.set(e);
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            writer.interrupt();
+            Thread.onSpinWait();
+        }
+        consumer.close();
+        assertEquals(null, failure.get());
+        List<String> lines = Files.readAllLines(folder.resolve("1.log"));
+        assertEquals(count, lines.size());
+        assertTrue(lines.stream().allMatch(message::equals));
+    }
+
+    @Test
+    void oversizedEntry() throws IOException {
+        RotatingFileConsumer consumer = new RotatingFileConsumer(folder)
+                .setPolicy(new SizeRotationPolicy("{ID}.log", 4));
+        log(consumer, "first", "second");
+        consumer.close();
+        assertEquals(List.of("first"), Files.readAllLines(folder.resolve("1.log")));
+        assertEquals(List.of("second"), Files.readAllLines(folder.resolve("2.log")));
+    }
+
+    @Test
+    void timestampWithoutInstant() throws Exception {
+        RotatingFileConsumer consumer = new RotatingFileConsumer(folder)
+                .setPolicy(new TemporalRotationPolicy("{TIMESTAMP}.log", DateTimeFormatter.ofPattern("HH"), 1, ChronoField.HOUR_OF_DAY));
+        consume(consumer, LocalTime.of(10, 30), "first");
+        consume(consumer, LocalTime.of(10, 45), "second");
+        consume(consumer, LocalTime.of(11, 0), "third");
+        consumer.close();
+        assertEquals(List.of("first", "second"), Files.readAllLines(folder.resolve("10.log")));
+        assertEquals(List.of("third"), Files.readAllLines(folder.resolve("11.log")));
+    }
+
+    @Test
+    void preparedHybridFile() throws Exception {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH-mm");
+        RotatingFileConsumer consumer = new RotatingFileConsumer(folder)
+                .setPreparationTime(1L, TimeUnit.HOURS)
+                .setPolicy(new HybridRotationPolicy("{TIMESTAMP} {ID}.log", formatter, 1, ChronoField.MINUTE_OF_HOUR, 10));
+        LocalDateTime timestamp = LocalDateTime.now();
+        LocalDateTime nextTimestamp = timestamp.plusMinutes(1L);
+        Path upcomingFile = folder.resolve(formatter.format(nextTimestamp) + " 1.log");
+        consume(consumer, timestamp, "1234");
+        consume(consumer, timestamp, "5678");
+        while (Files.notExists(upcomingFile)) {
+            Thread.sleep(10L);
+        }
+        consume(consumer, timestamp, "90");
+        consume(consumer, nextTimestamp, "next");
+        consumer.close();
+        assertEquals(List.of("1234", "5678"), Files.readAllLines(folder.resolve(formatter.format(timestamp) + " 1.log")));
+        assertEquals(List.of("90"), Files.readAllLines(folder.resolve(formatter.format(timestamp) + " 2.log")));
+        assertEquals(List.of("next"), Files.readAllLines(upcomingFile));
+        assertFalse(Files.exists(folder.resolve(formatter.format(nextTimestamp) + " 2.log")));
+    }
+
+    @Test
+    void failedPreparation() throws Exception {
+        CountDownLatch prepared = new CountDownLatch(1);
+        long deadline = SystemEpochClock.instance.nanos() + TimeUnit.MILLISECONDS.toNanos(500L);
+        LocalDateTime nextTimestamp = LocalDateTime.ofInstant(Instant.ofEpochSecond(0L, deadline), ZoneId.systemDefault());
+        RotatingFileConsumer consumer = new RotatingFileConsumer(folder)
+                .setPreparationTime(0L, TimeUnit.NANOSECONDS)
+                .setPolicy(new RotationPolicy() {
+                    @Override
+                    public void initialize(Path root, Temporal timestamp) {
+                    }
+
+                    @Override
+                    public Path currentFile(Path root, Temporal timestamp) {
+                        return root.resolve(nextTimestamp.isAfter((LocalDateTime) timestamp) ? "first.log" : "second.log");
+                    }
+
+                    @Override
+                    public long nextRotation(Temporal timestamp) {
+                        return nextTimestamp.isAfter((LocalDateTime) timestamp) ? deadline : Long.MAX_VALUE;
+                    }
+
+                    @Override
+                    public Optional<Path> upcomingFile(Path root, Temporal timestamp) throws Exception {
+                        prepared.countDown();
+                        throw new Exception("upcoming");
+                    }
+                });
+        consume(consumer, LocalDateTime.now(), "first");
+        assertTrue(prepared.await(10L, TimeUnit.SECONDS));
+        RotationException exception = assertThrows(RotationException.class, () -> consume(consumer, nextTimestamp, "second"));
+        assertEquals("upcoming", exception.getCause().getMessage());
+        consumer.close();
+        assertEquals(List.of("first"), Files.readAllLines(folder.resolve("first.log")));
+        assertEquals(List.of("second"), Files.readAllLines(folder.resolve("second.log")));
+    }
+
+    private static void consume(RotatingFileConsumer consumer, Temporal timestamp, String message) throws Exception {
+        LogEntry entry = new LogEntry(StandardLevel.INFORMATION, message, null);
+        entry.setTimestamp(timestamp);
+        consumer.consume(entry, ByteBuffer.wrap((message + '\n').getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void log(RotatingFileConsumer consumer, String... messages) {
+        PipelineLogger logger = new SynchronousLogger()
+                .addPipeline(new Pipeline().addConsumer(consumer));
+        for (String message : messages) {
+            logger.info(message);
+        }
+    }
+}
@@ -18,6 +18,9 @@ package eu.menzani.logger.impl;
 
 import eu.menzani.logger.api.AbstractLoggerTest;
 import eu.menzani.logger.api.PipelineLogger;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 class SynchronousLoggerTest extends AbstractLoggerTest {
     @Override
@@ -25,4 +28,47 @@ class SynchronousLoggerTest extends AbstractLoggerTest {
         return new SynchronousLogger()
                 .addPipeline(pipeline);
     }
+
+    @Test
+    void formatSharing() throws InterruptedException {
+        BufferConsumer first = new BufferConsumer();
+        BufferConsumer second = new BufferConsumer();
+        BufferConsumer third = new BufferConsumer();
+        SynchronousLogger logger = new SynchronousLogger();
+        logger.addPipeline(new Pipeline().setProducer(newProducer()).addConsumer(first))
+                .addPipeline(new Pipeline().setProducer(newProducer()).addConsumer(second))
+                .addPipeline(new Pipeline().addConsumer(third));
+        logger.info("message");
+        assertEquals("INFO message", first.nextEntry());
+        assertEquals("INFO message", second.nextEntry());
+        assertEquals("message", third.nextEntry());
+        // The whole second producer, and the message fragment of the default producer.
+        assertEquals(2, logger.getDeduplicatedFormatCount());
+    }
+
+    @Test
+    void fragmentSharing() throws InterruptedException {
+        BufferConsumer first = new BufferConsumer();
+        BufferConsumer second = new BufferConsumer();
+        SynchronousLogger logger = new SynchronousLogger();
+        logger.addPipeline(new Pipeline().setProducer(new Producer()
+                .append(new LevelFormatter())
+                .append(' ')
+                .append(new TimestampFormatter("yyyy"))).addConsumer(first))
+                .addPipeline(new Pipeline().setProducer(new Producer()
+                        .append(new TimestampFormatter("yyyy"))
+                        .append(' ')
+                        .append(new MessageFormatter())).addConsumer(second));
+        logger.info("message");
+        String year = first.nextEntry().substring("INFO ".length());
+        assertEquals(year + " message", second.nextEntry());
+        assertEquals(1, logger.getDeduplicatedFormatCount());
+    }
+
+    private static Producer newProducer() {
+        return new Producer()
+                .append(new LevelFormatter())
+                .append(' ')
+                .append(new MessageFormatter());
+    }
 }
\ No newline at end of file
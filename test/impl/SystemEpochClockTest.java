@@ -0,0 +1,35 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SystemEpochClockTest {
+    @Test
+    void nanos() throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            long before = System.currentTimeMillis();
+            long nanos = SystemEpochClock.instance.nanos();
+            long after = System.currentTimeMillis();
+            assertTrue(nanos >= before * 1_000_000L);
+            assertTrue(nanos < (after + 1) * 1_000_000L);
+            Thread.sleep(0L, 100_000);
+        }
+    }
+}
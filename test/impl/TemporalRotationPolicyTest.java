@@ -0,0 +1,89 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoField;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TemporalRotationPolicyTest {
+    private static final Path root = Path.of("logs");
+
+    @Test
+    void nextRotation() {
+        TemporalRotationPolicy policy = newPolicy(15, ChronoField.MINUTE_OF_HOUR);
+        assertEquals(toNanos(LocalDateTime.of(2020, 1, 1, 10, 15)),
+                policy.nextRotation(LocalDateTime.of(2020, 1, 1, 10, 7, 30)));
+    }
+
+    @Test
+    void nextRotationAtEndOfRange() {
+        TemporalRotationPolicy policy = newPolicy(5, ChronoField.HOUR_OF_DAY);
+        LocalDateTime timestamp = LocalDateTime.of(2020, 1, 1, 22, 30);
+        LocalDateTime deadline = LocalDateTime.of(2020, 1, 2, 0, 0);
+        assertEquals(toNanos(deadline), policy.nextRotation(timestamp));
+        assertEquals(root.resolve("2020-01-01 20.log"), policy.currentFile(root, timestamp));
+        assertEquals(root.resolve("2020-01-02 00.log"), policy.currentFile(root, deadline));
+    }
+
+    @Test
+    void nextRotationInOverlap() {
+        ZoneId zone = ZoneId.of("Europe/Rome");
+        TemporalRotationPolicy policy = newPolicy(15, ChronoField.MINUTE_OF_HOUR);
+        ZonedDateTime earlier = ZonedDateTime.ofLocal(LocalDateTime.of(2020, 10, 25, 2, 30), zone, ZoneOffset.ofHours(2));
+        ZonedDateTime later = earlier.withLaterOffsetAtOverlap();
+        assertEquals(toNanos(earlier.plusMinutes(15L)), policy.nextRotation(earlier));
+        assertEquals(toNanos(later.plusMinutes(15L)), policy.nextRotation(later));
+
+        TimeZone defaultZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone(zone));
+        try {
+            assertEquals(toNanos(later.plusMinutes(15L)), policy.nextRotation(later.toLocalDateTime()));
+            ZonedDateTime beforeOverlap = ZonedDateTime.of(2020, 10, 25, 1, 50, 0, 0, zone);
+            assertEquals(toNanos(beforeOverlap.plusMinutes(10L)), policy.nextRotation(beforeOverlap.toLocalDateTime()));
+        } finally {
+            TimeZone.setDefault(defaultZone);
+        }
+    }
+
+    @Test
+    void unknownRotation() {
+        TemporalRotationPolicy policy = newPolicy(1, ChronoField.ALIGNED_WEEK_OF_YEAR);
+        assertEquals(Long.MIN_VALUE, policy.nextRotation(LocalDateTime.of(2020, 1, 1, 0, 0)));
+    }
+
+    private static TemporalRotationPolicy newPolicy(int stepWidth, ChronoField stepWidthField) {
+        return new TemporalRotationPolicy("{TIMESTAMP}.log", DateTimeFormatter.ofPattern("yyyy-MM-dd HH"), stepWidth, stepWidthField);
+    }
+
+    private static long toNanos(ZonedDateTime dateTime) {
+        return dateTime.toEpochSecond() * 1_000_000_000L;
+    }
+
+    private static long toNanos(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toEpochSecond() * 1_000_000_000L;
+    }
+}
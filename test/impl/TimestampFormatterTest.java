@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class TimestampFormatterTest {
+    private static final long[] timestamps = {
+            1_600_000_000_000_000_000L,
+            1_600_000_000_120_000_000L,
+            1_600_000_000_123_456_789L,
+            1_600_000_000_999_999_999L,
+            1_600_000_001_000_000_001L,
+            1_600_000_061_500_000_000L,
+            -1_500_000_000L
+    };
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "yyyy-MM-dd HH:mm:ss.SSS",
+            "HH:mm:ss,SSSSSS 'S'",
+            "yyyyMMddHHmmssSSSSSSSSS",
+            "HH:mm:ss",
+            "SSS ss.SSS",
+            "HH:mm[:ss.SSS]",
+            "HH:mm:ss.nnnnnnnnn"
+    })
+    void pattern(String pattern) {
+        assertFormats(new TimestampFormatter(pattern), DateTimeFormatter.ofPattern(pattern));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"ISO_LOCAL_DATE_TIME", "ISO_LOCAL_TIME"})
+    void isoFormatter(String name) throws ReflectiveOperationException {
+        DateTimeFormatter formatter = (DateTimeFormatter) DateTimeFormatter.class.getField(name).get(null);
+        assertFormats(new TimestampFormatter(formatter), formatter);
+    }
+
+    @Test
+    void equality() {
+        assertEquals(new TimestampFormatter("HH:mm:ss"), new TimestampFormatter("HH:mm:ss"));
+        assertEquals(new TimestampFormatter("HH:mm:ss").hashCode(), new TimestampFormatter("HH:mm:ss").hashCode());
+        assertEquals(new TimestampFormatter(), new TimestampFormatter());
+        assertNotEquals(new TimestampFormatter("HH:mm:ss"), new TimestampFormatter("HH:mm"));
+        assertNotEquals(new TimestampFormatter(DateTimeFormatter.ofPattern("EEE").withLocale(Locale.ITALIAN)),
+                new TimestampFormatter(DateTimeFormatter.ofPattern("EEE").withLocale(Locale.ENGLISH)));
+    }
+
+    private static void assertFormats(TimestampFormatter timestampFormatter, DateTimeFormatter formatter) {
+        for (long timestampNanos : timestamps) {
+            LogEntry entry = new LogEntry(StandardLevel.INFORMATION, "message", null);
+            entry.setTimestamp(timestampNanos);
+            String expected = formatter.format(LocalDateTime.ofInstant(Instant.ofEpochSecond(0L, timestampNanos), ZoneId.systemDefault()));
+            assertEquals(expected, timestampFormatter.format(entry));
+            StringBuilder builder = new StringBuilder();
+            timestampFormatter.formatTo(entry, builder);
+            assertEquals(expected, builder.toString());
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2020 Francesco Menzani
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.menzani.logger.impl;
+
+import eu.menzani.logger.RingBuffer;
+import eu.menzani.logger.api.WaitStrategy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WaitStrategyTest {
+    private static final long timeoutNanos = TimeUnit.SECONDS.toNanos(10);
+
+    static Stream<WaitStrategy> strategies() {
+        return Stream.of(
+                new BlockingWaitStrategy(),
+                new BusySpinWaitStrategy(),
+                new YieldingWaitStrategy(),
+                new BackoffWaitStrategy());
+    }
+
+    @ParameterizedTest
+    @MethodSource("strategies")
+    void signalAfterPublishing(WaitStrategy strategy) throws InterruptedException {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        Thread dispatcher = start(() -> {
+            int idleCount = 0;
+            while (buffer.isEmpty()) {
+                strategy.idle(idleCount++, buffer, timeoutNanos);
+            }
+        }, thrown);
+        Thread.sleep(50L);
+        buffer.offer(0);
+        strategy.signal();
+        dispatcher.join(TimeUnit.SECONDS.toMillis(1));
+        assertFalse(dispatcher.isAlive());
+        assertNull(thrown.get());
+    }
+
+    @ParameterizedTest
+    @MethodSource("strategies")
+    void signalOnShutdown(WaitStrategy strategy) throws InterruptedException {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        Thread dispatcher = start(() -> strategy.idle(Integer.MAX_VALUE, buffer, timeoutNanos), thrown);
+        Thread.sleep(50L);
+        strategy.signal();
+        dispatcher.join(TimeUnit.SECONDS.toMillis(1));
+        assertFalse(dispatcher.isAlive());
+        assertNull(thrown.get());
+    }
+
+    @ParameterizedTest
+    @MethodSource("strategies")
+    void restartLogger(WaitStrategy strategy) throws InterruptedException {
+        BufferConsumer consumer = new BufferConsumer();
+        ParallelLogger logger = new ParallelLogger()
+                .setWaitStrategy(strategy)
+                .addPipeline(new Pipeline().addConsumer(consumer))
+                .setDefaultParallelism();
+        logger.info("before");
+        assertEquals("before", consumer.nextEntry());
+        long start = System.nanoTime();
+        logger.setDefaultParallelism();
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        logger.info("after");
+        assertEquals("after", consumer.nextEntry());
+    }
+
+    @Test
+    void blockingInterrupt() throws InterruptedException {
+        BlockingWaitStrategy strategy = new BlockingWaitStrategy();
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        Thread dispatcher = start(() -> strategy.idle(0, new RingBuffer<>(4), timeoutNanos), thrown);
+        dispatcher.interrupt();
+        dispatcher.join();
+        assertTrue(thrown.get() instanceof InterruptedException);
+    }
+
+    @Test
+    void blockingSkipsWaitWhenNotEmpty() throws InterruptedException {
+        BlockingWaitStrategy strategy = new BlockingWaitStrategy();
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        buffer.offer(0);
+        strategy.idle(0, buffer, timeoutNanos);
+        assertEquals(0, strategy.getParkCount());
+    }
+
+    @Test
+    void backoffCounts() {
+        BackoffWaitStrategy strategy = new BackoffWaitStrategy(2, 1, 1, 1000);
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        for (int idleCount = 0; idleCount < 5; idleCount++) {
+            strategy.idle(idleCount, buffer, timeoutNanos);
+        }
+        assertEquals(3, strategy.getSpinCount());
+        assertEquals(2, strategy.getParkCount());
+    }
+
+    @Test
+    void yieldingCounts() {
+        YieldingWaitStrategy strategy = new YieldingWaitStrategy(2);
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        for (int idleCount = 0; idleCount < 5; idleCount++) {
+            strategy.idle(idleCount, buffer, timeoutNanos);
+        }
+        assertEquals(2, strategy.getSpinCount());
+        assertEquals(3, strategy.getYieldCount());
+        assertEquals(0, strategy.getParkCount());
+    }
+
+    @Test
+    void badBackoff() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> new BackoffWaitStrategy(0, 0, 2, 1));
+        assertEquals("minParkNanos must be positive and not greater than maxParkNanos.", e.getMessage());
+    }
+
+    private static Thread start(Idle idle, AtomicReference<Throwable> thrown) {
+        Thread thread = new Thread(() -> {
+            try {
+                idle.run();
+            } catch (Throwable e) {
+                thrown.set(e);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private interface Idle {
+        void run() throws InterruptedException;
+    }
+}